@@ -0,0 +1,83 @@
+package com.credit.benchmark;
+
+import com.credit.service.CreditCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Расчёт платежа, графика и распределения погашения на типичных суммах, ставках и сроках
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreditCalculatorBenchmark {
+
+    @Param({"10000.00", "500000.00", "15000000.00"})
+    public String amount;
+
+    // Годовая ставка долей, как она хранится в CreditTariff
+    @Param({"0.0000", "0.0750", "0.2490"})
+    public String annualRate;
+
+    @Param({"12", "60", "360"})
+    public int durationMonths;
+
+    private BigDecimal principal;
+    private BigDecimal monthlyRate;
+    private BigDecimal monthlyPayment;
+    private BigDecimal accumulatedPenalty;
+    private BigDecimal repayment;
+
+    @Setup
+    public void setUp() {
+        principal = new BigDecimal(amount);
+        monthlyRate = CreditCalculator.monthlyRate(new BigDecimal(annualRate));
+        monthlyPayment = CreditCalculator.monthlyPayment(principal, monthlyRate, durationMonths);
+        accumulatedPenalty = monthlyPayment.multiply(new BigDecimal("0.3"));
+        repayment = monthlyPayment.multiply(new BigDecimal("1.5"));
+    }
+
+    @Benchmark
+    public BigDecimal monthlyPayment() {
+        return CreditCalculator.monthlyPayment(principal, monthlyRate, durationMonths);
+    }
+
+    @Benchmark
+    public BigDecimal monthlyPaymentExact() {
+        return CreditCalculator.monthlyPaymentExact(principal, monthlyRate, durationMonths);
+    }
+
+    @Benchmark
+    public List<CreditCalculator.ScheduleRow> schedule() {
+        return CreditCalculator.schedule(principal, monthlyRate, monthlyPayment, durationMonths);
+    }
+
+    @Benchmark
+    public List<CreditCalculator.ScheduleRow> scheduleExact() {
+        return CreditCalculator.scheduleExact(principal, monthlyRate, monthlyPayment, durationMonths);
+    }
+
+    @Benchmark
+    public BigDecimal totalInterest() {
+        return CreditCalculator.totalInterest(principal, monthlyRate, monthlyPayment, durationMonths);
+    }
+
+    @Benchmark
+    public CreditCalculator.RepaymentAllocation repaymentAllocation() {
+        return CreditCalculator.allocateRepayment(repayment, accumulatedPenalty, principal, monthlyRate);
+    }
+}
@@ -0,0 +1,71 @@
+package com.credit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность запущенного сервиса при 1024 одновременных клиентах.
+ * Сравнение режимов: прогнать дважды против экземпляра с VIRTUAL_THREADS_ENABLED=false и =true, например
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="CreditServiceLoadBenchmark -p authorization='Bearer ...'"
+ * Ответ 503 от ограничителя конкурентности тоже считается выполненной операцией — его доля видна в логах сервиса
+ * и в метрике http.server.requests.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Threads(1024)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreditServiceLoadBenchmark {
+
+    @Param({"http://localhost:8080"})
+    public String baseUrl;
+
+    // Эндпоинт с проверкой JWT, чтением из БД и без побочных эффектов
+    @Param({"/api/credits/my"})
+    public String path;
+
+    @Param({""})
+    public String authorization;
+
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+        if (!authorization.isEmpty()) {
+            builder.header("Authorization", authorization);
+        }
+        request = builder.build();
+    }
+
+    @Benchmark
+    public int request() throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -25,12 +25,14 @@ public interface CoreServiceClient {
     @PutMapping("/internal/bank-accounts/{id}/apply-credit")
     void applyCredit(
         @PathVariable("id") String bankAccountId,
+        @RequestHeader("Idempotency-Key") String idempotencyKey,
         @RequestBody MoneyOperationDto operation
     );
 
     @PutMapping("/internal/bank-accounts/{id}/pay-credit")
     void payCredit(
         @PathVariable("id") String bankAccountId,
+        @RequestHeader("Idempotency-Key") String idempotencyKey,
         @RequestBody MoneyOperationDto operation
     );
 }
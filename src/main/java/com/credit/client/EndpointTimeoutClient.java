@@ -0,0 +1,56 @@
+package com.credit.client;
+
+import com.credit.config.CoreServiceProperties;
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Обёртка над Feign клиентом, подставляющая таймауты конкретного метода CoreServiceClient
+public class EndpointTimeoutClient implements Client {
+
+    private final Client delegate;
+    private final CoreServiceProperties properties;
+    private final Map<String, String> endpointNames = new ConcurrentHashMap<>();
+
+    public EndpointTimeoutClient(Client delegate, CoreServiceProperties properties) {
+        this.delegate = delegate;
+        this.properties = properties;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        return delegate.execute(request, resolveOptions(request, options));
+    }
+
+    private Request.Options resolveOptions(Request request, Request.Options defaults) {
+        if (request.requestTemplate() == null || request.requestTemplate().methodMetadata() == null) {
+            return defaults;
+        }
+        MethodMetadata metadata = request.requestTemplate().methodMetadata();
+        String endpoint = endpointNames.computeIfAbsent(metadata.configKey(),
+                key -> toKebabCase(metadata.method().getName()));
+        CoreServiceProperties.Timeouts timeouts = properties.getTimeouts().get(endpoint);
+        if (timeouts == null) {
+            return defaults;
+        }
+        long connectMillis = timeouts.getConnect() != null
+                ? timeouts.getConnect().toMillis()
+                : defaults.connectTimeoutMillis();
+        long readMillis = timeouts.getRead() != null
+                ? timeouts.getRead().toMillis()
+                : defaults.readTimeoutMillis();
+        return new Request.Options(connectMillis, TimeUnit.MILLISECONDS,
+                readMillis, TimeUnit.MILLISECONDS, defaults.isFollowRedirects());
+    }
+
+    private static String toKebabCase(String methodName) {
+        return methodName.replaceAll("([a-z0-9])([A-Z])", "$1-$2").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,58 @@
+package com.credit.client;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+
+// Обёртка над Feign клиентом: замеряет вызовы Core сервиса по методу CoreServiceClient и исходу
+public class MeteredClient implements Client {
+
+    private final Client delegate;
+    private final MeterRegistry meterRegistry;
+
+    public MeteredClient(Client delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "IO_ERROR";
+        String status = "none";
+        try {
+            Response response = delegate.execute(request, options);
+            status = String.valueOf(response.status());
+            outcome = outcome(response.status());
+            return response;
+        } finally {
+            sample.stop(Timer.builder("core.client.requests")
+                    .description("Calls to Core Service")
+                    .tag("method", methodName(request))
+                    .tag("outcome", outcome)
+                    .tag("status", status)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String methodName(Request request) {
+        if (request.requestTemplate() == null || request.requestTemplate().methodMetadata() == null) {
+            return "unknown";
+        }
+        return request.requestTemplate().methodMetadata().method().getName();
+    }
+
+    private static String outcome(int status) {
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        return "SUCCESS";
+    }
+}
@@ -0,0 +1,17 @@
+package com.credit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "credit.analytics")
+public class AnalyticsProperties {
+    // Как часто пересчитывается снимок портфеля
+    private Duration refreshInterval = Duration.ofMinutes(5);
+    // Сколько хранятся старые снимки
+    private Duration retention = Duration.ofDays(7);
+}
@@ -0,0 +1,132 @@
+package com.credit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограничение числа одновременно обрабатываемых запросов к /api в режиме виртуальных потоков.
+ * Пул Tomcat больше не ограничивает конкурентность, поэтому без фильтра тысячи запросов
+ * выстроились бы в очередь за соединениями Hikari и отваливались по connection-timeout.
+ * Лишние запросы ждут acquire-timeout и получают 503 с Retry-After.
+ * Предел вычисляется от суммарного размера пулов Hikari: основного и, при включённой реплике, пула реплики.
+ * Асинхронный запрос (потоковая выгрузка) держит место до завершения асинхронной обработки,
+ * а не до выхода из цепочки фильтров.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final ConcurrencyProperties properties;
+    private final Semaphore permits;
+
+    public ConcurrencyLimitFilter(ConcurrencyProperties properties, ObjectProvider<HikariDataSource> pools) {
+        this.properties = properties;
+        int limit = properties.getMaxInFlight() > 0
+                ? properties.getMaxInFlight()
+                : poolSize(pools) * Math.max(1, properties.getRequestsPerConnection());
+        this.permits = new Semaphore(limit, true);
+        log.info("Virtual threads enabled, in-flight API requests limited to {}", limit);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(properties.getAcquireTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests");
+            return;
+        }
+        Permit permit = new Permit();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!request.isAsyncStarted() || !listen(request, permit)) {
+                permit.release();
+            }
+        }
+    }
+
+    private static boolean listen(HttpServletRequest request, Permit permit) {
+        try {
+            request.getAsyncContext().addListener(permit);
+            return true;
+        } catch (IllegalStateException e) {
+            // Асинхронная обработка уже завершилась
+            return false;
+        }
+    }
+
+    // primaryDataSource и replicaDataSource при включённой реплике, иначе DataSource Spring Boot
+    private static int poolSize(ObjectProvider<HikariDataSource> pools) {
+        int size = pools.orderedStream().mapToInt(HikariDataSource::getMaximumPoolSize).sum();
+        return size > 0 ? size : 10;
+    }
+
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    // Место освобождается один раз: при завершении, ошибке или таймауте асинхронной обработки
+    private class Permit implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Повторный startAsync сбрасывает слушателей - регистрируемся заново
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.credit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "credit.concurrency")
+public class ConcurrencyProperties {
+    // Явный предел одновременно обрабатываемых запросов; 0 - вычислить от размера пула соединений
+    private int maxInFlight = 0;
+    // Сколько запросов допускается на одно соединение пула, когда предел вычисляется
+    private int requestsPerConnection = 4;
+    // Сколько запрос ждёт свободного места, прежде чем получить 503
+    private Duration acquireTimeout = Duration.ofSeconds(2);
+}
@@ -4,10 +4,22 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration
 @ConfigurationProperties(prefix = "core-service")
 @Data
 public class CoreServiceProperties {
     private String url;
     private String apiKey;
+    // Таймауты по методам CoreServiceClient, ключ - имя метода в kebab-case (get-my-bank-accounts)
+    private Map<String, Timeouts> timeouts = new HashMap<>();
+
+    @Data
+    public static class Timeouts {
+        private Duration connect;
+        private Duration read;
+    }
 }
@@ -0,0 +1,15 @@
+package com.credit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "credit.listing")
+public class CreditListingProperties {
+    // Размер страницы по умолчанию для GET /api/credits/page
+    private int defaultPageSize = 100;
+    // Максимально допустимый размер страницы
+    private int maxPageSize = 1000;
+}
@@ -1,7 +1,12 @@
 package com.credit.config;
 
+import com.credit.client.EndpointTimeoutClient;
+import com.credit.client.MeteredClient;
+import feign.Capability;
+import feign.Client;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,6 +16,7 @@ import org.springframework.context.annotation.Configuration;
 public class FeignClientConfig {
 
     private final CoreServiceProperties coreServiceProperties;
+    private final MeterRegistry meterRegistry;
 
     @Bean
     public RequestInterceptor requestInterceptor() {
@@ -21,4 +27,24 @@ public class FeignClientConfig {
             }
         };
     }
+
+    @Bean
+    public Capability endpointTimeoutCapability() {
+        return new Capability() {
+            @Override
+            public Client enrich(Client client) {
+                return new EndpointTimeoutClient(client, coreServiceProperties);
+            }
+        };
+    }
+
+    @Bean
+    public Capability meteredClientCapability() {
+        return new Capability() {
+            @Override
+            public Client enrich(Client client) {
+                return new MeteredClient(client, meterRegistry);
+            }
+        };
+    }
 }
@@ -0,0 +1,22 @@
+package com.credit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "credit.idempotency")
+public class IdempotencyProperties {
+    // Сколько хранится результат запроса с Idempotency-Key
+    private Duration ttl = Duration.ofHours(24);
+    // Резервация без ответа старше этого времени считается оставшейся после сбоя и может быть перехвачена;
+    // должна быть больше максимальной длительности запроса
+    private Duration reservationTimeout = Duration.ofMinutes(2);
+    // Максимальное количество завершённых ключей в памяти
+    private int cacheSize = 10000;
+    // Количество ключей, удаляемых одним DELETE
+    private int purgeBatchSize = 1000;
+}
@@ -11,4 +11,6 @@ public class JwtProperties {
     private String signingKey;
     private String issuer;
     private String audience;
+    // Максимальное количество проверенных токенов в кэше
+    private int cacheSize = 10000;
 }
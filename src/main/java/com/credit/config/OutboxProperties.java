@@ -0,0 +1,27 @@
+package com.credit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "credit.outbox")
+public class OutboxProperties {
+    // Количество операций, забираемых за один проход
+    private int batchSize = 50;
+    // Сколько вызовов Core выполняется одновременно; операции одного кредита идут последовательно
+    private int concurrency = 8;
+    // После стольких неудачных попыток операция помечается FAILED
+    private int maxAttempts = 10;
+    // Базовая задержка между попытками, растёт линейно с номером попытки
+    private Duration retryBackoff = Duration.ofSeconds(5);
+    // На сколько захваченная операция скрыта от других обработчиков;
+    // не меньше ceil(batchSize / concurrency) таймаутов вызова Core
+    private Duration lease = Duration.ofSeconds(60);
+    // Повторы перехода состояния кредита при конфликте версий (без повторного вызова Core)
+    private int stateRetries = 5;
+    private Duration stateRetryBackoff = Duration.ofMillis(20);
+}
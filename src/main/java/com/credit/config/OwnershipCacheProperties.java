@@ -0,0 +1,17 @@
+package com.credit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "credit.ownership-cache")
+public class OwnershipCacheProperties {
+    // Время жизни списка счетов пользователя в кэше
+    private Duration ttl = Duration.ofSeconds(30);
+    // Максимальное количество пользователей в кэше
+    private int maxSize = 10000;
+}
@@ -0,0 +1,22 @@
+package com.credit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "credit.schedule")
+public class PaymentScheduleProperties {
+
+    public enum Mode {
+        // График сохраняется в payment_schedule при выдаче кредита
+        STORED,
+        // График рассчитывается по параметрам кредита при запросе, в БД хранятся только отклонения
+        COMPUTED
+    }
+
+    private Mode mode = Mode.STORED;
+    // Максимальное количество графиков в LRU кэше (режим COMPUTED)
+    private int cacheSize = 10000;
+}
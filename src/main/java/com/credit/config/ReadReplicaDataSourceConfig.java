@@ -0,0 +1,79 @@
+package com.credit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Пулы основной БД и реплики. Соединение берётся лениво, при первом запросе, когда флаг read-only
+ * транзакции уже выставлен: такие транзакции (@Transactional(readOnly = true) и read-only TransactionTemplate)
+ * получают соединение через ReplicaRoutingDataSource, остальные - из основного пула.
+ * Для этого оба пула выдают соединения без auto-commit, а Hibernate не переключает auto-commit в начале
+ * транзакции (provider_disables_autocommit). Запись вне транзакции в таком соединении откатывается при возврате
+ * в пул, поэтому все записи сервиса выполняются в транзакциях.
+ * Без credit.datasource.replica.enabled используется стандартный DataSource Spring Boot с auto-commit.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "credit.datasource.replica", name = "enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        dataSource.setAutoCommit(false);
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("credit.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties dataSourceProperties,
+                                              ReplicaDataSourceProperties replicaProperties) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(dataSourceProperties.determineDriverClassName())
+                .url(replicaProperties.getUrl())
+                .username(StringUtils.hasText(replicaProperties.getUsername())
+                        ? replicaProperties.getUsername() : dataSourceProperties.determineUsername())
+                .password(StringUtils.hasText(replicaProperties.getPassword())
+                        ? replicaProperties.getPassword() : dataSourceProperties.determinePassword())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        dataSource.setAutoCommit(false);
+        // Сервис стартует и без реплики - чтение уйдёт в основную БД
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer disableAutocommitHibernateProperties() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_PROVIDER_DISABLES_AUTOCOMMIT, true);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+}
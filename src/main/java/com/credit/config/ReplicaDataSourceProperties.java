@@ -0,0 +1,21 @@
+package com.credit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "credit.datasource.replica")
+public class ReplicaDataSourceProperties {
+    // Направлять read-only транзакции на реплику; настройки пула - в credit.datasource.replica.hikari
+    private boolean enabled = false;
+    private String url;
+    // Пустые логин и пароль - как у основной БД
+    private String username;
+    private String password;
+    // Допустимое отставание реплики; при большем чтение идёт в основную БД
+    private Duration maxLag = Duration.ofSeconds(5);
+}
@@ -0,0 +1,117 @@
+package com.credit.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+
+/**
+ * Источник соединений для read-only транзакций: реплика, пока она доступна и отстаёт не больше max-lag,
+ * иначе основная БД. Состояние реплики проверяется по расписанию; ошибка получения соединения
+ * сразу переключает чтение на основную БД до следующей успешной проверки.
+ */
+@Component
+@ConditionalOnProperty(prefix = "credit.datasource.replica", name = "enabled", havingValue = "true")
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    // Отставание в миллисекундах; без входящих WAL (всё применено) или на основной БД - 0
+    private static final String LAG_SQL = "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0::bigint " +
+            "ELSE (EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::bigint END";
+
+    private final DataSource primaryDataSource;
+    private final DataSource replicaDataSource;
+    private final ReplicaDataSourceProperties properties;
+    private volatile boolean replicaAvailable;
+    private volatile long lagMillis = -1;
+
+    public ReplicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                    @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                    ReplicaDataSourceProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.primaryDataSource = primaryDataSource;
+        this.replicaDataSource = replicaDataSource;
+        this.properties = properties;
+        Gauge.builder("credit.datasource.replica.available", this, dataSource -> dataSource.replicaAvailable ? 1 : 0)
+                .description("Whether read-only transactions are routed to the replica")
+                .register(meterRegistry);
+        Gauge.builder("credit.datasource.replica.lag", this, dataSource -> dataSource.lagMillis)
+                .description("Replica replay lag in milliseconds, -1 if unknown")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (!replicaAvailable) {
+            return source.get(primaryDataSource);
+        }
+        try {
+            return source.get(replicaDataSource);
+        } catch (SQLFeatureNotSupportedException e) {
+            // Пул не поддерживает такой способ получения соединения - это не признак недоступности реплики
+            throw e;
+        } catch (SQLException e) {
+            markUnavailable(e.getMessage());
+            return source.get(primaryDataSource);
+        }
+    }
+
+    // Проверка доступности и отставания реплики - выполняется каждые 5 секунд
+    @Scheduled(fixedDelayString = "${credit.datasource.replica.health-check-interval:5000}")
+    public void checkReplica() {
+        try (Connection connection = replicaDataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_SQL)) {
+            resultSet.next();
+            long lag = resultSet.getLong(1);
+            boolean unknown = resultSet.wasNull();
+            connection.rollback();
+            lagMillis = unknown ? -1 : lag;
+            if (unknown) {
+                markUnavailable("replay lag is unknown");
+            } else if (lag > properties.getMaxLag().toMillis()) {
+                markUnavailable("replay lag " + lag + " ms exceeds " + properties.getMaxLag().toMillis() + " ms");
+            } else if (!replicaAvailable) {
+                replicaAvailable = true;
+                log.info("Read replica is available (lag {} ms), routing read-only transactions to it", lag);
+            }
+        } catch (SQLException e) {
+            lagMillis = -1;
+            markUnavailable(e.getMessage());
+        }
+    }
+
+    private void markUnavailable(String reason) {
+        if (replicaAvailable) {
+            replicaAvailable = false;
+            log.warn("Read replica is unavailable ({}), routing read-only transactions to primary", reason);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+}
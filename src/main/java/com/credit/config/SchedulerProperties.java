@@ -0,0 +1,30 @@
+package com.credit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "credit.scheduler")
+public class SchedulerProperties {
+
+    public enum Mode {
+        // Каждую задачу выполняет один экземпляр - владелец блокировки в scheduler_locks
+        LEADER,
+        // Обходы кредитов делятся между живыми экземплярами по id mod N, остальные задачи - как в LEADER
+        SHARDED
+    }
+
+    private Mode mode = Mode.LEADER;
+    // Идентификатор экземпляра; пустой - имя хоста и случайный суффикс
+    private String instanceId;
+    // Сколько после завершения задачи блокировка остаётся за экземпляром; он же продлевает её на следующем запуске
+    private Duration leaderLease = Duration.ofSeconds(90);
+    // Предельное время удержания блокировки, если экземпляр упал во время задачи
+    private Duration maxLockDuration = Duration.ofMinutes(10);
+    // Через сколько без heartbeat экземпляр исключается из распределения шардов
+    private Duration instanceTimeout = Duration.ofSeconds(30);
+}
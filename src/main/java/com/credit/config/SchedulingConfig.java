@@ -0,0 +1,12 @@
+package com.credit.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Плановые задачи; credit.scheduling.enabled=false выключает их (экземпляры только для API, тесты)
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "credit.scheduling", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -0,0 +1,15 @@
+package com.credit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "credit.tick")
+public class TickPipelineProperties {
+    // Количество кредитов, обрабатываемых в одной транзакции минутного прохода
+    private int chunkSize = 500;
+    // Количество параллельно обрабатываемых диапазонов ID
+    private int parallelism = 4;
+}
@@ -1,12 +1,19 @@
 package com.credit.controller;
 
+import com.credit.dto.BulkRepayRequest;
+import com.credit.dto.BulkRepayResponse;
+import com.credit.dto.CreditPageResponse;
 import com.credit.dto.CreditPaymentResponse;
 import com.credit.dto.CreditResponse;
 import com.credit.dto.CreditStatisticsResponse;
 import com.credit.dto.PaymentScheduleResponse;
 import com.credit.dto.RepayCreditRequest;
 import com.credit.dto.TakeCreditRequest;
+import com.credit.service.BulkRepaymentService;
+import com.credit.service.CreditMetrics;
 import com.credit.service.CreditService;
+import com.credit.service.IdempotencyService;
+import com.credit.util.JwtPrincipal;
 import com.credit.util.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -15,8 +22,10 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -28,29 +37,75 @@ public class CreditController {
 
     private final CreditService creditService;
     private final JwtUtil jwtUtil;
+    private final CreditMetrics creditMetrics;
+    private final IdempotencyService idempotencyService;
+    private final BulkRepaymentService bulkRepaymentService;
+
+    private void requireEmployeeRole(HttpServletRequest servletRequest) {
+        String authHeader = servletRequest.getHeader("Authorization");
+        java.util.List<String> roles = jwtUtil.getRolesFromAuthHeader(authHeader);
+        if (!roles.contains("Employee")) {
+            throw new org.springframework.web.server.ResponseStatusException(
+                    org.springframework.http.HttpStatus.FORBIDDEN, "Access denied: Employee role required");
+        }
+    }
 
     @PostMapping
-    @Operation(summary = "Взять кредит")
+    @Operation(summary = "Взять кредит",
+            description = "Кредит создаётся со статусом зачисления disbursementStatus = PENDING и возвращается " +
+                    "до движения денег. Зачисление на банковский счёт выполняет Core сервис асинхронно " +
+                    "(с заголовком Idempotency-Key): disbursementStatus становится CONFIRMED, " +
+                    "при окончательном отказе - FAILED, и кредит отменяется")
     @SecurityRequirement(name = "bearerAuth")
     public ResponseEntity<CreditResponse> takeCredit(
             HttpServletRequest servletRequest,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody TakeCreditRequest request) {
         String authHeader = servletRequest.getHeader("Authorization");
         String userId = jwtUtil.getUserIdFromAuthHeader(authHeader);
-        CreditResponse response = creditService.takeCredit(userId, authHeader, request);
+        CreditResponse response = idempotencyService.execute(userId, idempotencyKey, "take_credit", request,
+                CreditResponse.class,
+                () -> creditMetrics.recordOperation("take_credit",
+                        () -> creditService.takeCredit(userId, authHeader, request)));
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     @PostMapping("/{creditId}/repay")
-    @Operation(summary = "Погасить кредит")
+    @Operation(summary = "Погасить кредит",
+            description = "Платёж создаётся в статусе PENDING и возвращается до списания денег. " +
+                    "Списание со счёта в Core сервисе (с заголовком Idempotency-Key) и распределение по кредиту " +
+                    "выполняются асинхронно. Погашение доступно только после подтверждения зачисления кредита " +
+                    "(disbursementStatus = CONFIRMED)")
     @SecurityRequirement(name = "bearerAuth")
     public ResponseEntity<CreditPaymentResponse> repayCredit(
             HttpServletRequest servletRequest,
             @PathVariable Long creditId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody RepayCreditRequest request) {
         String authHeader = servletRequest.getHeader("Authorization");
         String userId = jwtUtil.getUserIdFromAuthHeader(authHeader);
-        CreditPaymentResponse response = creditService.repayCredit(userId, authHeader, creditId, request);
+        CreditPaymentResponse response = idempotencyService.execute(userId, idempotencyKey,
+                "repay_credit/" + creditId, request, CreditPaymentResponse.class,
+                () -> creditMetrics.recordOperation("repay_credit",
+                        () -> creditService.repayCredit(userId, authHeader, creditId, request)));
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/bulk-repay")
+    @Operation(summary = "Массовое погашение кредитов",
+            description = "Принимает список платежей и возвращает результат по каждому. " +
+                    "Принятые платежи списываются и распределяются асинхронно, как и при обычном погашении")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<BulkRepayResponse> bulkRepayCredits(
+            HttpServletRequest servletRequest,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody BulkRepayRequest request) {
+        String authHeader = servletRequest.getHeader("Authorization");
+        String userId = jwtUtil.getUserIdFromAuthHeader(authHeader);
+        BulkRepayResponse response = idempotencyService.execute(userId, idempotencyKey, "bulk_repay", request,
+                BulkRepayResponse.class,
+                () -> creditMetrics.recordOperation("bulk_repay",
+                        () -> bulkRepaymentService.repayCredits(userId, authHeader, request)));
         return ResponseEntity.ok(response);
     }
 
@@ -61,11 +116,10 @@ public class CreditController {
             HttpServletRequest servletRequest,
             @PathVariable Long id) {
         String authHeader = servletRequest.getHeader("Authorization");
-        java.util.List<String> roles = jwtUtil.getRolesFromAuthHeader(authHeader);
+        JwtPrincipal principal = jwtUtil.getPrincipalFromAuthHeader(authHeader);
         CreditResponse response = creditService.getCreditById(id);
-        if (!roles.contains("Employee")) {
-            String userId = jwtUtil.getUserIdFromAuthHeader(authHeader);
-            if (!userId.equals(response.getOwnerId())) {
+        if (!principal.hasRole("Employee")) {
+            if (!principal.userId().equals(response.getOwnerId())) {
                 throw new org.springframework.web.server.ResponseStatusException(
                         org.springframework.http.HttpStatus.FORBIDDEN, "Access denied: this credit does not belong to you");
             }
@@ -77,16 +131,33 @@ public class CreditController {
     @Operation(summary = "Получить все кредиты")
     @SecurityRequirement(name = "bearerAuth")
     public ResponseEntity<List<CreditResponse>> getAllCredits(HttpServletRequest servletRequest) {
-        String authHeader = servletRequest.getHeader("Authorization");
-        java.util.List<String> roles = jwtUtil.getRolesFromAuthHeader(authHeader);
-        if (!roles.contains("Employee")) {
-            throw new org.springframework.web.server.ResponseStatusException(
-                    org.springframework.http.HttpStatus.FORBIDDEN, "Access denied: Employee role required");
-        }
+        requireEmployeeRole(servletRequest);
         List<CreditResponse> credits = creditService.getAllCredits();
         return ResponseEntity.ok(credits);
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Получить кредиты постранично (курсор по ID)")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<CreditPageResponse> getCreditsPage(
+            HttpServletRequest servletRequest,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer size) {
+        requireEmployeeRole(servletRequest);
+        return ResponseEntity.ok(creditService.getCreditsPage(afterId, size));
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @Operation(summary = "Выгрузить все кредиты в формате NDJSON")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<StreamingResponseBody> exportCredits(HttpServletRequest servletRequest) {
+        requireEmployeeRole(servletRequest);
+        StreamingResponseBody body = creditService::exportAllCredits;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @GetMapping("/my")
     @Operation(summary = "Получить мои кредиты")
     @SecurityRequirement(name = "bearerAuth")
@@ -104,11 +175,10 @@ public class CreditController {
             HttpServletRequest servletRequest,
             @PathVariable Long creditId) {
         String authHeader = servletRequest.getHeader("Authorization");
-        java.util.List<String> roles = jwtUtil.getRolesFromAuthHeader(authHeader);
-        if (!roles.contains("Employee")) {
-            String userId = jwtUtil.getUserIdFromAuthHeader(authHeader);
+        JwtPrincipal principal = jwtUtil.getPrincipalFromAuthHeader(authHeader);
+        if (!principal.hasRole("Employee")) {
             CreditResponse credit = creditService.getCreditById(creditId);
-            if (!userId.equals(credit.getOwnerId())) {
+            if (!principal.userId().equals(credit.getOwnerId())) {
                 throw new org.springframework.web.server.ResponseStatusException(
                         org.springframework.http.HttpStatus.FORBIDDEN, "Access denied: this credit does not belong to you");
             }
@@ -124,11 +194,10 @@ public class CreditController {
             HttpServletRequest servletRequest,
             @PathVariable Long creditId) {
         String authHeader = servletRequest.getHeader("Authorization");
-        java.util.List<String> roles = jwtUtil.getRolesFromAuthHeader(authHeader);
-        if (!roles.contains("Employee")) {
-            String userId = jwtUtil.getUserIdFromAuthHeader(authHeader);
+        JwtPrincipal principal = jwtUtil.getPrincipalFromAuthHeader(authHeader);
+        if (!principal.hasRole("Employee")) {
             CreditResponse credit = creditService.getCreditById(creditId);
-            if (!userId.equals(credit.getOwnerId())) {
+            if (!principal.userId().equals(credit.getOwnerId())) {
                 throw new org.springframework.web.server.ResponseStatusException(
                         org.springframework.http.HttpStatus.FORBIDDEN, "Access denied: this credit does not belong to you");
             }
@@ -144,11 +213,10 @@ public class CreditController {
             HttpServletRequest servletRequest,
             @PathVariable Long creditId) {
         String authHeader = servletRequest.getHeader("Authorization");
-        java.util.List<String> roles = jwtUtil.getRolesFromAuthHeader(authHeader);
-        if (!roles.contains("Employee")) {
-            String userId = jwtUtil.getUserIdFromAuthHeader(authHeader);
+        JwtPrincipal principal = jwtUtil.getPrincipalFromAuthHeader(authHeader);
+        if (!principal.hasRole("Employee")) {
             CreditResponse credit = creditService.getCreditById(creditId);
-            if (!userId.equals(credit.getOwnerId())) {
+            if (!principal.userId().equals(credit.getOwnerId())) {
                 throw new org.springframework.web.server.ResponseStatusException(
                         org.springframework.http.HttpStatus.FORBIDDEN, "Access denied: this credit does not belong to you");
             }
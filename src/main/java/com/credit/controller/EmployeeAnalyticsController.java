@@ -0,0 +1,59 @@
+package com.credit.controller;
+
+import com.credit.dto.PortfolioAnalyticsResponse;
+import com.credit.service.PortfolioAnalyticsService;
+import com.credit.util.JwtUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+@RestController
+@RequestMapping("/api/employee/analytics")
+@RequiredArgsConstructor
+@Tag(name = "Аналитика портфеля (Сотрудник)")
+public class EmployeeAnalyticsController {
+
+    // Первый снимок планировщик считает сразу после старта
+    private static final String SNAPSHOT_RETRY_AFTER_SECONDS = "5";
+
+    private final PortfolioAnalyticsService portfolioAnalyticsService;
+    private final JwtUtil jwtUtil;
+
+    private void requireEmployeeRole(HttpServletRequest servletRequest) {
+        String authHeader = servletRequest.getHeader("Authorization");
+        java.util.List<String> roles = jwtUtil.getRolesFromAuthHeader(authHeader);
+        if (!roles.contains("Employee")) {
+            throw new org.springframework.web.server.ResponseStatusException(
+                    org.springframework.http.HttpStatus.FORBIDDEN, "Access denied: Employee role required");
+        }
+    }
+
+    @GetMapping("/portfolio")
+    @Operation(summary = "Аналитика портфеля по тарифам и статусам",
+            description = "Агрегаты из последнего снимка портфеля; snapshotAt - момент расчёта снимка. "
+                    + "До первого снимка после развёртывания - 503 с Retry-After")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<PortfolioAnalyticsResponse> getPortfolio(HttpServletRequest servletRequest,
+                                                                   WebRequest webRequest) {
+        requireEmployeeRole(servletRequest);
+        PortfolioAnalyticsService.Tagged portfolio = portfolioAnalyticsService.getPortfolio().orElse(null);
+        if (portfolio == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, SNAPSHOT_RETRY_AFTER_SECONDS)
+                    .build();
+        }
+        if (webRequest.checkNotModified(portfolio.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(portfolio.etag()).build();
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(portfolio.etag())
+                .body(portfolio.response());
+    }
+}
@@ -2,11 +2,15 @@ package com.credit.controller;
 
 import com.credit.dto.CreditTariffResponse;
 import com.credit.service.CreditTariffService;
+import com.credit.service.TariffCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -20,15 +24,21 @@ public class PublicTariffController {
 
     @GetMapping("/{id}")
     @Operation(summary = "Получить тариф по ID")
-    public ResponseEntity<CreditTariffResponse> getTariffById(@PathVariable Long id) {
-        CreditTariffResponse response = tariffService.getTariffById(id);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CreditTariffResponse> getTariffById(@PathVariable Long id, WebRequest webRequest) {
+        TariffCache.Tagged tariff = tariffService.getTariffById(id);
+        if (webRequest.checkNotModified(tariff.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tariff.etag()).build();
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(tariff.etag()).body(tariff.response());
     }
 
     @GetMapping
     @Operation(summary = "Получить все доступные тарифы")
-    public ResponseEntity<List<CreditTariffResponse>> getAllTariffs() {
-        List<CreditTariffResponse> tariffs = tariffService.getAllTariffs();
-        return ResponseEntity.ok(tariffs);
+    public ResponseEntity<List<CreditTariffResponse>> getAllTariffs(WebRequest webRequest) {
+        TariffCache.Snapshot snapshot = tariffService.getTariffsSnapshot();
+        if (webRequest.checkNotModified(snapshot.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.etag()).build();
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(snapshot.etag()).body(snapshot.all());
     }
 }
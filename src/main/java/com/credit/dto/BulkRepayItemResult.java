@@ -0,0 +1,18 @@
+package com.credit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRepayItemResult {
+    // Позиция платежа в запросе
+    private Integer index;
+    private Long creditId;
+    private Boolean accepted;
+    // ID созданного платежа в статусе PENDING, если платёж принят
+    private Long paymentId;
+    private String error;
+}
@@ -0,0 +1,20 @@
+package com.credit.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRepayRequest {
+
+    @NotEmpty(message = "Список платежей не может быть пустым")
+    @Size(max = 5000, message = "Не более 5000 платежей в одном запросе")
+    private List<@Valid BulkRepayItem> items;
+}
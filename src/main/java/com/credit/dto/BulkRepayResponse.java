@@ -0,0 +1,16 @@
+package com.credit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRepayResponse {
+    private Integer accepted;
+    private Integer rejected;
+    private List<BulkRepayItemResult> results;
+}
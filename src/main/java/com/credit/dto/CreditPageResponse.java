@@ -0,0 +1,16 @@
+package com.credit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditPageResponse {
+    private List<CreditResponse> items;
+    // ID последнего кредита страницы, передаётся как afterId для следующей; null если страниц больше нет
+    private Long nextCursor;
+}
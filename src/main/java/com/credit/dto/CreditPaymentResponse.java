@@ -1,5 +1,6 @@
 package com.credit.dto;
 
+import com.credit.entity.MoneyOperationStatus;
 import com.credit.entity.PaymentType;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -17,5 +18,7 @@ public class CreditPaymentResponse {
     private BigDecimal amount;
     private PaymentType paymentType;
     private LocalDateTime paymentDate;
+    private MoneyOperationStatus status;
+    private BigDecimal unallocatedAmount;
     private LocalDateTime createdAt;
 }
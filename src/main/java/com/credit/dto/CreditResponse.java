@@ -1,6 +1,7 @@
 package com.credit.dto;
 
 import com.credit.entity.CreditStatus;
+import com.credit.entity.MoneyOperationStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -26,6 +27,7 @@ public class CreditResponse {
     private BigDecimal accumulatedPenalty;
     private Integer overdueDays;
     private CreditStatus status;
+    private MoneyOperationStatus disbursementStatus;
     private LocalDateTime issueDate;
     private LocalDateTime nextPaymentDate;
     private LocalDateTime createdAt;
@@ -0,0 +1,24 @@
+package com.credit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioAnalyticsResponse {
+    // Момент расчёта снимка; null - снимок ещё не рассчитан
+    private LocalDateTime snapshotAt;
+    private Long creditCount;
+    private BigDecimal issuedAmount;
+    private BigDecimal outstandingPrincipal;
+    private BigDecimal accumulatedPenalty;
+    // Доля остатка основного долга, приходящаяся на OVERDUE кредиты
+    private BigDecimal overdueShare;
+    private List<PortfolioGroupResponse> groups;
+}
@@ -0,0 +1,21 @@
+package com.credit.dto;
+
+import com.credit.entity.CreditStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioGroupResponse {
+    private Long tariffId;
+    private String tariffName;
+    private CreditStatus status;
+    private Long creditCount;
+    private BigDecimal issuedAmount;
+    private BigDecimal outstandingPrincipal;
+    private BigDecimal accumulatedPenalty;
+}
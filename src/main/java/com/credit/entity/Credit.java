@@ -38,6 +38,10 @@ public class Credit {
     @Column(nullable = false)
     private Integer durationMonths;
 
+    // Сумма процентов по графику платежей, рассчитывается при выдаче кредита
+    @Column(name = "total_interest", precision = 15, scale = 2)
+    private BigDecimal totalInterest;
+
     @Column(nullable = false)
     private Integer remainingMonths;
 
@@ -51,12 +55,26 @@ public class Credit {
     @Column(nullable = false)
     private CreditStatus status;
 
+    // Статус зачисления кредита на счёт через Core сервис
+    @Enumerated(EnumType.STRING)
+    @Column(name = "disbursement_status")
+    private MoneyOperationStatus disbursementStatus;
+
     @Column(name = "issue_date", nullable = false)
     private LocalDateTime issueDate;
 
     @Column(name = "next_payment_date")
     private LocalDateTime nextPaymentDate;
 
+    // Момент (tick) последнего начисления штрафа, защищает от повторного начисления при перезапуске
+    @Column(name = "penalty_accrued_at")
+    private LocalDateTime penaltyAccruedAt;
+
+    // Оптимистическая блокировка: массовые UPDATE планировщика тоже увеличивают версию
+    @Version
+    @Column(nullable = false)
+    private Long version = 0L;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
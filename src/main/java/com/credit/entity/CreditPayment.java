@@ -33,6 +33,15 @@ public class CreditPayment {
     @Column(name = "payment_date", nullable = false)
     private LocalDateTime paymentDate;
 
+    // Статус списания платежа со счёта через Core сервис
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private MoneyOperationStatus status;
+
+    // Списанная, но не распределённая по кредиту сумма (кредит закрыт или отменён до подтверждения, переплата)
+    @Column(name = "unallocated_amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal unallocatedAmount = BigDecimal.ZERO;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,84 @@
+package com.credit.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Запись outbox: денежная операция в Core сервисе, ожидающая отправки
+@Entity
+@Table(name = "money_operation_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoneyOperation {
+
+    public static final int LAST_ERROR_LENGTH = 1000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MoneyOperationType operationType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MoneyOperationStatus status;
+
+    @Column(name = "idempotency_key", nullable = false, unique = true)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private String bankAccountId;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "credit_id", nullable = false)
+    private Long creditId;
+
+    @Column(name = "payment_id")
+    private Long paymentId;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(length = LAST_ERROR_LENGTH)
+    private String lastError;
+
+    // Core сервис принял операцию; при повторной обработке вызов Core не повторяется
+    @Column(name = "core_accepted_at")
+    private LocalDateTime coreAcceptedAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Сообщения Feign содержат тело ответа Core и могут не поместиться в столбец
+    public void setLastError(String lastError) {
+        this.lastError = lastError != null && lastError.length() > LAST_ERROR_LENGTH
+                ? lastError.substring(0, LAST_ERROR_LENGTH)
+                : lastError;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
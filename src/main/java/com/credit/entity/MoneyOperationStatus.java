@@ -0,0 +1,7 @@
+package com.credit.entity;
+
+public enum MoneyOperationStatus {
+    PENDING,
+    CONFIRMED,
+    FAILED
+}
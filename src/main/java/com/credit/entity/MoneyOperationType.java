@@ -0,0 +1,6 @@
+package com.credit.entity;
+
+public enum MoneyOperationType {
+    APPLY_CREDIT,
+    PAY_CREDIT
+}
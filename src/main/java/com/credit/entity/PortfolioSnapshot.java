@@ -0,0 +1,46 @@
+package com.credit.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Агрегаты портфеля по тарифу и статусу кредита на момент snapshotAt
+@Entity
+@Table(name = "portfolio_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "snapshot_at", nullable = false)
+    private LocalDateTime snapshotAt;
+
+    @Column(name = "tariff_id", nullable = false)
+    private Long tariffId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CreditStatus status;
+
+    @Column(nullable = false)
+    private Long creditCount;
+
+    // Сумма выданных кредитов
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal issuedAmount;
+
+    // Остаток основного долга
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal outstandingPrincipal;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal accumulatedPenalty;
+}
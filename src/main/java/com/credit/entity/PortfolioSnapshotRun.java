@@ -0,0 +1,25 @@
+package com.credit.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Заголовок снимка портфеля: сохраняется и для пустого снимка, без строк portfolio_snapshots
+@Entity
+@Table(name = "portfolio_snapshot_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioSnapshotRun {
+
+    @Id
+    @Column(name = "snapshot_at", nullable = false)
+    private LocalDateTime snapshotAt;
+
+    // Число групп (тариф, статус) в снимке
+    @Column(name = "group_count", nullable = false)
+    private Integer groupCount;
+}
@@ -2,13 +2,105 @@ package com.credit.repository;
 
 import com.credit.entity.Credit;
 import com.credit.entity.CreditStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CreditRepository extends JpaRepository<Credit, Long> {
     List<Credit> findByStatus(CreditStatus status);
+
+    // Методы для выдачи CreditResponse загружают тариф тем же запросом, без N+1 выборок тарифов
+    @EntityGraph(attributePaths = "tariff")
     List<Credit> findByOwnerId(String ownerId);
+
+    @EntityGraph(attributePaths = "tariff")
+    @Query("select c from Credit c")
+    List<Credit> findAllWithTariff();
+
+    @EntityGraph(attributePaths = "tariff")
+    Optional<Credit> findWithTariffById(Long id);
+
+    // Страница кредитов после курсора afterId в порядке возрастания ID
+    @EntityGraph(attributePaths = "tariff")
+    List<Credit> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Однонаправленный курсор БД по всем кредитам; должен вызываться внутри транзакции
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from Credit c join fetch c.tariff order by c.id")
+    Stream<Credit> streamAllOrderById();
+
+    // Актуальные даты платежей ACTIVE кредитов с подтверждённым зачислением для возврата в индекс дат платежей
+    @Query("select c.id as id, c.nextPaymentDate as nextPaymentDate from Credit c " +
+            "where c.id in :ids and c.status = com.credit.entity.CreditStatus.ACTIVE " +
+            "and c.disbursementStatus = com.credit.entity.MoneyOperationStatus.CONFIRMED " +
+            "and c.nextPaymentDate is not null")
+    List<DueDate> findActiveDueDatesByIds(@Param("ids") List<Long> ids);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c.id as id, c.nextPaymentDate as nextPaymentDate from Credit c " +
+            "where c.status = com.credit.entity.CreditStatus.ACTIVE " +
+            "and c.disbursementStatus = com.credit.entity.MoneyOperationStatus.CONFIRMED " +
+            "and c.nextPaymentDate is not null")
+    Stream<DueDate> streamActiveDueDates();
+
+    // ACTIVE кредиты, изменённые начиная с since, - в том числе другими экземплярами сервиса
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c.id as id, c.nextPaymentDate as nextPaymentDate from Credit c " +
+            "where c.updatedAt >= :since and c.status = com.credit.entity.CreditStatus.ACTIVE " +
+            "and c.disbursementStatus = com.credit.entity.MoneyOperationStatus.CONFIRMED " +
+            "and c.nextPaymentDate is not null")
+    Stream<DueDate> streamActiveDueDatesUpdatedSince(@Param("since") LocalDateTime since);
+
+    // Агрегаты портфеля по тарифу и статусу для снимка аналитики; не дольше 60 секунд
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_TIMEOUT, value = "60")
+    })
+    @Query("select c.tariff.id as tariffId, c.status as status, count(c) as creditCount, " +
+            "sum(c.amount) as issuedAmount, sum(c.remainingAmount) as outstandingPrincipal, " +
+            "sum(c.accumulatedPenalty) as accumulatedPenalty " +
+            "from Credit c group by c.tariff.id, c.status")
+    List<PortfolioAggregate> aggregatePortfolio();
+
+    interface DueDate {
+        Long getId();
+
+        LocalDateTime getNextPaymentDate();
+    }
+
+    interface PortfolioAggregate {
+        Long getTariffId();
+
+        CreditStatus getStatus();
+
+        Long getCreditCount();
+
+        BigDecimal getIssuedAmount();
+
+        BigDecimal getOutstandingPrincipal();
+
+        BigDecimal getAccumulatedPenalty();
+    }
 }
@@ -0,0 +1,149 @@
+package com.credit.repository;
+
+import com.credit.entity.CreditStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Чтение кандидатов и пакетная запись результатов минутного прохода планировщика
+@Repository
+@RequiredArgsConstructor
+public class CreditTickRepository {
+
+    private static final String COLUMNS = "id, status, next_payment_date, monthly_payment, " +
+            "accumulated_penalty, overdue_days, penalty_accrued_at, version";
+
+    // Кредит участвует в проходе только после подтверждённого зачисления денег клиенту
+    private static final String DISBURSED = "disbursement_status = 'CONFIRMED'";
+
+    private static final String PENDING_PENALTY = "status = 'OVERDUE' AND " + DISBURSED + " " +
+            "AND (penalty_accrued_at IS NULL OR penalty_accrued_at < ?)";
+
+    // Границы ID прохода: OVERDUE кредиты, а без индекса дат платежей - и ACTIVE.
+    // Запросы прохода не private: их планы проверяет MigrationIndexUsageTest
+    static final String OVERDUE_ID_RANGE_SQL =
+            "SELECT min(id), max(id) FROM credits WHERE status = 'OVERDUE' AND " + DISBURSED;
+
+    static final String ID_RANGE_SQL =
+            "SELECT min(id), max(id) FROM credits WHERE status IN ('ACTIVE', 'OVERDUE') AND " + DISBURSED;
+
+    // Кредиты из индекса дат платежей плюс следующая порция OVERDUE кредитов диапазона без штрафа за tick
+    static final String FIND_DUE_AND_PENDING_SQL =
+            "SELECT " + COLUMNS + " FROM credits " +
+            "WHERE id = ANY(?) AND status = 'ACTIVE' AND " + DISBURSED + " AND next_payment_date < ? " +
+            "UNION ALL " +
+            "(SELECT " + COLUMNS + " FROM credits " +
+            "WHERE id > ? AND id <= ? AND MOD(id, ?) = ? AND " + PENDING_PENALTY + " " +
+            "ORDER BY id LIMIT ?)";
+
+    // Без индекса дат платежей: обе группы кандидатов читаются одним проходом по диапазону ID
+    static final String FIND_IN_RANGE_SQL =
+            "SELECT " + COLUMNS + " FROM credits " +
+            "WHERE id > ? AND id <= ? AND MOD(id, ?) = ? AND " + DISBURSED + " " +
+            "AND ((status = 'ACTIVE' AND next_payment_date < ?) OR (" + PENDING_PENALTY + ")) " +
+            "ORDER BY id LIMIT ?";
+
+    // Повторное чтение кредитов, запись которых не прошла проверку версии
+    private static final String FIND_BY_IDS_SQL = "SELECT " + COLUMNS + " FROM credits WHERE id = ANY(?)";
+
+    // Запись применяется, только если кредит не изменился после чтения
+    private static final String UPDATE_SQL = "UPDATE credits SET status = ?, overdue_days = ?, " +
+            "accumulated_penalty = ?, penalty_accrued_at = ?, updated_at = ?, " +
+            "version = version + 1 WHERE id = ? AND version = ?";
+
+    private static final RowMapper<Candidate> CANDIDATE_MAPPER = (rs, rowNum) -> new Candidate(
+            rs.getLong("id"),
+            CreditStatus.valueOf(rs.getString("status")),
+            toLocalDateTime(rs.getTimestamp("next_payment_date")),
+            rs.getBigDecimal("monthly_payment"),
+            rs.getBigDecimal("accumulated_penalty"),
+            rs.getInt("overdue_days"),
+            toLocalDateTime(rs.getTimestamp("penalty_accrued_at")),
+            rs.getLong("version"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Границы ID кредитов, которые может затронуть проход; null - кандидатов нет
+    public IdRange findIdRange(boolean includeActive) {
+        return jdbcTemplate.queryForObject(includeActive ? ID_RANGE_SQL : OVERDUE_ID_RANGE_SQL,
+                (rs, rowNum) -> rs.getObject(1) == null ? null : new IdRange(rs.getLong(1), rs.getLong(2)));
+    }
+
+    public List<Candidate> findDueAndPendingPenalty(List<Long> dueIds, long afterId, long upToId,
+                                                    int shardIndex, int shardCount,
+                                                    LocalDateTime now, LocalDateTime tick, int limit) {
+        return jdbcTemplate.query(FIND_DUE_AND_PENDING_SQL, CANDIDATE_MAPPER,
+                dueIds.toArray(new Long[0]), Timestamp.valueOf(now),
+                afterId, upToId, shardCount, shardIndex, Timestamp.valueOf(tick), limit);
+    }
+
+    public List<Candidate> findInRange(long afterId, long upToId, int shardIndex, int shardCount,
+                                       LocalDateTime now, LocalDateTime tick, int limit) {
+        return jdbcTemplate.query(FIND_IN_RANGE_SQL, CANDIDATE_MAPPER,
+                afterId, upToId, shardCount, shardIndex, Timestamp.valueOf(now), Timestamp.valueOf(tick), limit);
+    }
+
+    public List<Candidate> findByIds(List<Long> ids) {
+        return jdbcTemplate.query(FIND_BY_IDS_SQL, CANDIDATE_MAPPER, (Object) ids.toArray(new Long[0]));
+    }
+
+    // Один JDBC batch на порцию; 0 в результате - кредит изменён параллельно и пропущен
+    public int[] update(List<Update> updates, LocalDateTime now) {
+        if (updates.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        return jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Update update = updates.get(i);
+                ps.setString(1, update.status().name());
+                ps.setInt(2, update.overdueDays());
+                ps.setBigDecimal(3, update.accumulatedPenalty());
+                setTimestamp(ps, 4, update.penaltyAccruedAt());
+                ps.setTimestamp(5, updatedAt);
+                ps.setLong(6, update.id());
+                ps.setLong(7, update.version());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return updates.size();
+            }
+        });
+    }
+
+    private static void setTimestamp(PreparedStatement ps, int index, LocalDateTime value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.TIMESTAMP);
+        } else {
+            ps.setTimestamp(index, Timestamp.valueOf(value));
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    public record IdRange(long minId, long maxId) {
+    }
+
+    public record Candidate(long id, CreditStatus status, LocalDateTime nextPaymentDate, BigDecimal monthlyPayment,
+                            BigDecimal accumulatedPenalty, int overdueDays, LocalDateTime penaltyAccruedAt,
+                            long version) {
+    }
+
+    public record Update(long id, long version, CreditStatus status, int overdueDays, BigDecimal accumulatedPenalty,
+                         LocalDateTime penaltyAccruedAt) {
+    }
+}
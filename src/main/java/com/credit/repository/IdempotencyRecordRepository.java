@@ -0,0 +1,34 @@
+package com.credit.repository;
+
+import com.credit.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByOwnerIdAndIdempotencyKey(String ownerId, String idempotencyKey);
+
+    @Modifying
+    @Query("update IdempotencyRecord r set r.responseBody = :responseBody, r.completedAt = :now where r.id = :id")
+    int complete(@Param("id") Long id,
+                 @Param("responseBody") String responseBody,
+                 @Param("now") LocalDateTime now);
+
+    // Снятие резервации, оставшейся после сбоя: ответа нет и запрос начат раньше startedBefore
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.id = :id and r.responseBody is null and r.createdAt < :startedBefore")
+    int deleteStaleReservation(@Param("id") Long id, @Param("startedBefore") LocalDateTime startedBefore);
+
+    // Удаление порции истёкших ключей; порциями, чтобы не держать длинную транзакцию и блокировки
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE id IN (" +
+            "SELECT id FROM idempotency_keys WHERE expires_at < :now ORDER BY id LIMIT :limit)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
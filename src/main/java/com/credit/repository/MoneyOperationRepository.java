@@ -0,0 +1,32 @@
+package com.credit.repository;
+
+import com.credit.entity.MoneyOperation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MoneyOperationRepository extends JpaRepository<MoneyOperation, Long> {
+
+    // Захват порции готовых к отправке операций; SKIP LOCKED не даёт двум обработчикам взять одну запись
+    @Query(value = "UPDATE money_operation_outbox SET locked_until = :lockedUntil " +
+            "WHERE id IN (SELECT id FROM money_operation_outbox " +
+            "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "AND (locked_until IS NULL OR locked_until < :now) " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id", nativeQuery = true)
+    List<Long> claimDueIds(@Param("now") LocalDateTime now,
+                           @Param("lockedUntil") LocalDateTime lockedUntil,
+                           @Param("limit") int limit);
+
+    // Продление lease захваченных операций, которые ещё не обработаны
+    @Modifying
+    @Query(value = "UPDATE money_operation_outbox SET locked_until = :lockedUntil " +
+            "WHERE id IN (:ids) AND status = 'PENDING' AND locked_until IS NOT NULL", nativeQuery = true)
+    int renewLease(@Param("ids") List<Long> ids, @Param("lockedUntil") LocalDateTime lockedUntil);
+}
@@ -0,0 +1,43 @@
+package com.credit.repository;
+
+import com.credit.entity.PaymentSchedule;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Пакетная вставка графика платежей через JDBC batch, минуя поштучный persist с IDENTITY
+@Repository
+@RequiredArgsConstructor
+public class PaymentScheduleBatchWriter {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = "INSERT INTO payment_schedule " +
+            "(credit_id, month_number, payment_date, total_payment, interest_payment, " +
+            "principal_payment, remaining_balance, paid, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<PaymentSchedule> schedule) {
+        if (schedule.isEmpty()) {
+            return;
+        }
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, schedule, BATCH_SIZE, (ps, row) -> {
+            ps.setLong(1, row.getCredit().getId());
+            ps.setInt(2, row.getMonthNumber());
+            ps.setTimestamp(3, Timestamp.valueOf(row.getPaymentDate()));
+            ps.setBigDecimal(4, row.getTotalPayment());
+            ps.setBigDecimal(5, row.getInterestPayment());
+            ps.setBigDecimal(6, row.getPrincipalPayment());
+            ps.setBigDecimal(7, row.getRemainingBalance());
+            ps.setBoolean(8, row.getPaid());
+            ps.setTimestamp(9, createdAt);
+        });
+    }
+}
@@ -0,0 +1,21 @@
+package com.credit.repository;
+
+import com.credit.entity.PortfolioSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PortfolioSnapshotRepository extends JpaRepository<PortfolioSnapshot, Long> {
+
+    List<PortfolioSnapshot> findBySnapshotAt(LocalDateTime snapshotAt);
+
+    @Modifying
+    @Query("delete from PortfolioSnapshot s where s.snapshotAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,21 @@
+package com.credit.repository;
+
+import com.credit.entity.PortfolioSnapshotRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface PortfolioSnapshotRunRepository extends JpaRepository<PortfolioSnapshotRun, LocalDateTime> {
+
+    @Query("select max(r.snapshotAt) from PortfolioSnapshotRun r")
+    LocalDateTime findLatestSnapshotAt();
+
+    @Modifying
+    @Query("delete from PortfolioSnapshotRun r where r.snapshotAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,72 @@
+package com.credit.repository;
+
+import com.credit.entity.CreditPayment;
+import com.credit.entity.MoneyOperation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Пакетная вставка платежей и операций outbox для массового погашения через JDBC batch
+@Repository
+@RequiredArgsConstructor
+public class RepaymentBatchWriter {
+
+    private static final int BATCH_SIZE = 500;
+
+    // ID платежей берутся из последовательности identity столбца заранее, чтобы сослаться на них из outbox
+    private static final String ALLOCATE_PAYMENT_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('credit_payments', 'id')) FROM generate_series(1, ?)";
+
+    private static final String INSERT_PAYMENT_SQL = "INSERT INTO credit_payments " +
+            "(id, credit_id, amount, payment_type, payment_date, status, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_OPERATION_SQL = "INSERT INTO money_operation_outbox " +
+            "(operation_type, status, idempotency_key, bank_account_id, amount, credit_id, payment_id, " +
+            "attempts, next_attempt_at, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 0, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<Long> allocatePaymentIds(int count) {
+        return jdbcTemplate.queryForList(ALLOCATE_PAYMENT_IDS_SQL, Long.class, count);
+    }
+
+    // Платежи должны иметь id из allocatePaymentIds
+    public void insertPayments(List<CreditPayment> payments) {
+        if (payments.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_PAYMENT_SQL, payments, BATCH_SIZE, (ps, payment) -> {
+            ps.setLong(1, payment.getId());
+            ps.setLong(2, payment.getCredit().getId());
+            ps.setBigDecimal(3, payment.getAmount());
+            ps.setString(4, payment.getPaymentType().name());
+            ps.setTimestamp(5, Timestamp.valueOf(payment.getPaymentDate()));
+            ps.setString(6, payment.getStatus().name());
+            ps.setTimestamp(7, Timestamp.valueOf(payment.getCreatedAt()));
+        });
+    }
+
+    public void insertMoneyOperations(List<MoneyOperation> operations) {
+        if (operations.isEmpty()) {
+            return;
+        }
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_OPERATION_SQL, operations, BATCH_SIZE, (ps, operation) -> {
+            ps.setString(1, operation.getOperationType().name());
+            ps.setString(2, operation.getStatus().name());
+            ps.setString(3, operation.getIdempotencyKey());
+            ps.setString(4, operation.getBankAccountId());
+            ps.setBigDecimal(5, operation.getAmount());
+            ps.setLong(6, operation.getCreditId());
+            ps.setLong(7, operation.getPaymentId());
+            ps.setTimestamp(8, createdAt);
+            ps.setTimestamp(9, createdAt);
+        });
+    }
+}
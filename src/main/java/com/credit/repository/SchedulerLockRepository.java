@@ -0,0 +1,55 @@
+package com.credit.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.List;
+
+// Блокировки плановых задач и heartbeat экземпляров; время берётся из БД, чтобы не зависеть от часов экземпляров
+@Repository
+@RequiredArgsConstructor
+public class SchedulerLockRepository {
+
+    // Блокировку получает владелец (продление) или любой экземпляр, если она истекла
+    private static final String ACQUIRE_SQL = "INSERT INTO scheduler_locks (name, locked_by, locked_at, locked_until) " +
+            "VALUES (?, ?, now(), now() + ? * INTERVAL '1 millisecond') " +
+            "ON CONFLICT (name) DO UPDATE SET locked_by = EXCLUDED.locked_by, " +
+            "locked_at = EXCLUDED.locked_at, locked_until = EXCLUDED.locked_until " +
+            "WHERE scheduler_locks.locked_by = EXCLUDED.locked_by OR scheduler_locks.locked_until <= EXCLUDED.locked_at";
+
+    private static final String RELEASE_SQL = "UPDATE scheduler_locks " +
+            "SET locked_until = now() + ? * INTERVAL '1 millisecond' WHERE name = ? AND locked_by = ?";
+
+    private static final String HEARTBEAT_SQL = "INSERT INTO scheduler_instances (instance_id, heartbeat_at) " +
+            "VALUES (?, now()) ON CONFLICT (instance_id) DO UPDATE SET heartbeat_at = now()";
+
+    private static final String EXPIRE_INSTANCES_SQL = "DELETE FROM scheduler_instances " +
+            "WHERE heartbeat_at < now() - ? * INTERVAL '1 millisecond'";
+
+    private static final String LIVE_INSTANCES_SQL = "SELECT instance_id FROM scheduler_instances " +
+            "WHERE heartbeat_at >= now() - ? * INTERVAL '1 millisecond' ORDER BY instance_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public boolean tryAcquire(String name, String owner, Duration lockFor) {
+        return jdbcTemplate.update(ACQUIRE_SQL, name, owner, lockFor.toMillis()) > 0;
+    }
+
+    // Оставляет блокировку за владельцем ещё на holdFor после завершения задачи
+    public void release(String name, String owner, Duration holdFor) {
+        jdbcTemplate.update(RELEASE_SQL, holdFor.toMillis(), name, owner);
+    }
+
+    // Продлевает heartbeat экземпляра и возвращает отсортированный список живых экземпляров
+    public List<String> heartbeat(String instanceId, Duration timeout) {
+        jdbcTemplate.update(HEARTBEAT_SQL, instanceId);
+        jdbcTemplate.update(EXPIRE_INSTANCES_SQL, timeout.multipliedBy(10).toMillis());
+        return jdbcTemplate.queryForList(LIVE_INSTANCES_SQL, String.class, timeout.toMillis());
+    }
+
+    public void leave(String instanceId) {
+        jdbcTemplate.update("DELETE FROM scheduler_instances WHERE instance_id = ?", instanceId);
+    }
+}
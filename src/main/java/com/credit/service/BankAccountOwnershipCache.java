@@ -0,0 +1,106 @@
+package com.credit.service;
+
+import com.credit.client.CoreServiceClient;
+import com.credit.config.OwnershipCacheProperties;
+import com.credit.dto.BankAccountDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш банковских счетов пользователя для проверки владения счётом.
+ * Параллельные запросы одного пользователя разделяют один вызов Core сервиса;
+ * если счёт не найден в кэше, список счетов перезапрашивается.
+ */
+@Component
+@Slf4j
+public class BankAccountOwnershipCache {
+
+    private final CoreServiceClient coreServiceClient;
+    private final OwnershipCacheProperties properties;
+    private final Map<String, CachedAccounts> cache;
+    private final Map<String, CompletableFuture<CachedAccounts>> inFlight = new ConcurrentHashMap<>();
+
+    public BankAccountOwnershipCache(CoreServiceClient coreServiceClient, OwnershipCacheProperties properties) {
+        this.coreServiceClient = coreServiceClient;
+        this.properties = properties;
+        int maxSize = Math.max(1, properties.getMaxSize());
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedAccounts> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    public boolean isOwnedBy(String userId, String authHeader, String bankAccountId) {
+        String accountId = bankAccountId.toLowerCase(Locale.ROOT);
+        Instant checkStartedAt = Instant.now();
+
+        CachedAccounts accounts = cache.get(userId);
+        if (accounts == null || accounts.loadedAt().plus(properties.getTtl()).isBefore(checkStartedAt)) {
+            accounts = load(userId, authHeader);
+        }
+        if (accounts.accountIds().contains(accountId)) {
+            return true;
+        }
+        // Счёт мог быть открыт после загрузки кэша — перезапрашиваем, если список не свежий
+        if (accounts.loadedAt().isBefore(checkStartedAt)) {
+            accounts = load(userId, authHeader);
+        }
+        return accounts.accountIds().contains(accountId);
+    }
+
+    private CachedAccounts load(String userId, String authHeader) {
+        CompletableFuture<CachedAccounts> own = new CompletableFuture<>();
+        CompletableFuture<CachedAccounts> existing = inFlight.putIfAbsent(userId, own);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
+
+        try {
+            CachedAccounts accounts = new CachedAccounts(fetch(authHeader), Instant.now());
+            cache.put(userId, accounts);
+            own.complete(accounts);
+            return accounts;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(userId, own);
+        }
+    }
+
+    private Set<String> fetch(String authHeader) {
+        log.info("Fetching bank accounts via /api/bank-accounts/my");
+        List<BankAccountDto> accounts;
+        try {
+            accounts = coreServiceClient.getMyBankAccounts(authHeader);
+        } catch (Exception e) {
+            log.error("Failed to fetch bank accounts from Core Service: {}", e.getMessage());
+            throw new RuntimeException("Unable to verify bank account ownership: " + e.getMessage(), e);
+        }
+        return accounts.stream()
+                .filter(a -> a.getId() != null)
+                .map(a -> a.getId().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private record CachedAccounts(Set<String> accountIds, Instant loadedAt) {
+    }
+}
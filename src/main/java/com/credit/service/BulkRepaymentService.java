@@ -0,0 +1,136 @@
+package com.credit.service;
+
+import com.credit.dto.BulkRepayItem;
+import com.credit.dto.BulkRepayItemResult;
+import com.credit.dto.BulkRepayRequest;
+import com.credit.dto.BulkRepayResponse;
+import com.credit.entity.Credit;
+import com.credit.entity.CreditPayment;
+import com.credit.entity.CreditStatus;
+import com.credit.entity.MoneyOperation;
+import com.credit.entity.MoneyOperationStatus;
+import com.credit.entity.MoneyOperationType;
+import com.credit.entity.PaymentType;
+import com.credit.repository.CreditRepository;
+import com.credit.repository.RepaymentBatchWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Массовое погашение кредитов одним запросом (удержания из зарплаты).
+ * Каждый платёж проверяется так же, как в CreditService.repayCredit, но владение счётом
+ * проверяется один раз на счёт, кредиты читаются одним запросом, а платежи и операции outbox
+ * вставляются JDBC batch. Списание и распределение платежа выполняет MoneyOperationDispatcher.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkRepaymentService {
+
+    private final CreditRepository creditRepository;
+    private final RepaymentBatchWriter repaymentBatchWriter;
+    private final BankAccountOwnershipCache bankAccountOwnershipCache;
+
+    @Transactional
+    public BulkRepayResponse repayCredits(String userId, String authHeader, BulkRepayRequest request) {
+        List<BulkRepayItem> items = request.getItems();
+        log.info("Bulk repayment of {} items for user {}", items.size(), userId);
+
+        // Владение проверяется до первого обращения к БД, чтобы не держать соединение во время вызовов Core
+        Map<String, Boolean> ownedAccounts = new HashMap<>();
+        for (BulkRepayItem item : items) {
+            ownedAccounts.computeIfAbsent(item.getBankAccountId(),
+                    accountId -> bankAccountOwnershipCache.isOwnedBy(userId, authHeader, accountId));
+        }
+
+        Set<Long> creditIds = items.stream().map(BulkRepayItem::getCreditId).collect(Collectors.toSet());
+        Map<Long, Credit> credits = creditRepository.findAllById(creditIds).stream()
+                .collect(Collectors.toMap(Credit::getId, Function.identity()));
+
+        List<BulkRepayItemResult> results = new ArrayList<>(items.size());
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            BulkRepayItem item = items.get(i);
+            String error = validate(userId, item, credits.get(item.getCreditId()), ownedAccounts);
+            results.add(new BulkRepayItemResult(i, item.getCreditId(), error == null, null, error));
+            if (error == null) {
+                acceptedIndexes.add(i);
+            }
+        }
+
+        if (!acceptedIndexes.isEmpty()) {
+            List<Long> paymentIds = repaymentBatchWriter.allocatePaymentIds(acceptedIndexes.size());
+            List<CreditPayment> payments = new ArrayList<>(acceptedIndexes.size());
+            List<MoneyOperation> operations = new ArrayList<>(acceptedIndexes.size());
+            LocalDateTime now = LocalDateTime.now();
+
+            for (int j = 0; j < acceptedIndexes.size(); j++) {
+                int index = acceptedIndexes.get(j);
+                BulkRepayItem item = items.get(index);
+                Long paymentId = paymentIds.get(j);
+
+                CreditPayment payment = new CreditPayment();
+                payment.setId(paymentId);
+                payment.setCredit(credits.get(item.getCreditId()));
+                payment.setAmount(item.getAmount());
+                payment.setPaymentType(PaymentType.MANUAL_REPAYMENT);
+                payment.setPaymentDate(now);
+                payment.setStatus(MoneyOperationStatus.PENDING);
+                payment.setCreatedAt(now);
+                payments.add(payment);
+
+                MoneyOperation operation = new MoneyOperation();
+                operation.setOperationType(MoneyOperationType.PAY_CREDIT);
+                operation.setStatus(MoneyOperationStatus.PENDING);
+                operation.setIdempotencyKey(UUID.randomUUID().toString());
+                operation.setBankAccountId(item.getBankAccountId());
+                operation.setAmount(item.getAmount());
+                operation.setCreditId(item.getCreditId());
+                operation.setPaymentId(paymentId);
+                operations.add(operation);
+
+                results.get(index).setPaymentId(paymentId);
+            }
+
+            repaymentBatchWriter.insertPayments(payments);
+            repaymentBatchWriter.insertMoneyOperations(operations);
+        }
+
+        int accepted = acceptedIndexes.size();
+        log.info("Bulk repayment for user {}: {} accepted, {} rejected", userId, accepted, items.size() - accepted);
+        return new BulkRepayResponse(accepted, items.size() - accepted, results);
+    }
+
+    // Те же проверки, что и в repayCredit; null - платёж принят
+    private String validate(String userId, BulkRepayItem item, Credit credit, Map<String, Boolean> ownedAccounts) {
+        if (!ownedAccounts.get(item.getBankAccountId())) {
+            return "Access denied: bank account does not belong to the authenticated user";
+        }
+        if (credit == null) {
+            return "Credit not found with id: " + item.getCreditId();
+        }
+        if (!credit.getOwnerId().equals(userId)) {
+            return "Access denied: this credit does not belong to you";
+        }
+        if (credit.getStatus() != CreditStatus.ACTIVE && credit.getStatus() != CreditStatus.OVERDUE) {
+            return "Credit cannot be repaid. Current status: " + credit.getStatus();
+        }
+        if (credit.getDisbursementStatus() != MoneyOperationStatus.CONFIRMED) {
+            return "Credit cannot be repaid until its disbursement is confirmed. Disbursement status: "
+                    + credit.getDisbursementStatus();
+        }
+        return null;
+    }
+}
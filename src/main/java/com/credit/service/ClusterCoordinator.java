@@ -0,0 +1,148 @@
+package com.credit.service;
+
+import com.credit.config.SchedulerProperties;
+import com.credit.repository.SchedulerLockRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Согласование плановых задач между экземплярами сервиса через таблицы scheduler_locks и scheduler_instances.
+ * LEADER: задачу выполняет экземпляр, получивший блокировку; после завершения он удерживает её ещё leaderLease
+ * и продлевает на следующем запуске, поэтому лидер не меняется, пока жив.
+ * SHARDED: обходы кредитов выполняет каждый живой экземпляр по своей части id (id mod N); N и номер части
+ * пересчитываются по heartbeat при входе и выходе экземпляров. Во время перераспределения части могут
+ * кратко пересекаться - переходы кредитов повторно проверяют условия в UPDATE и не применяются дважды.
+ */
+@Component
+@Slf4j
+public class ClusterCoordinator {
+
+    private final SchedulerLockRepository lockRepository;
+    private final SchedulerProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final String instanceId;
+    private volatile Shard shard;
+    private volatile long shardAssignedAt;
+
+    public ClusterCoordinator(SchedulerLockRepository lockRepository,
+                              SchedulerProperties properties,
+                              PlatformTransactionManager transactionManager) {
+        this.lockRepository = lockRepository;
+        this.properties = properties;
+        // Блокировка фиксируется сразу, независимо от транзакции задачи
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.instanceId = properties.getInstanceId() == null || properties.getInstanceId().isBlank()
+                ? hostName() + "-" + UUID.randomUUID().toString().substring(0, 8)
+                : properties.getInstanceId();
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    // Выполняет задачу, если блокировка name получена этим экземпляром; false - задачу выполняет другой
+    public boolean runExclusive(String name, Runnable task) {
+        Boolean acquired = transactionTemplate.execute(status ->
+                lockRepository.tryAcquire(name, instanceId, properties.getMaxLockDuration()));
+        if (!Boolean.TRUE.equals(acquired)) {
+            log.debug("Job {} is held by another instance, skipping", name);
+            return false;
+        }
+        try {
+            task.run();
+            return true;
+        } finally {
+            transactionTemplate.executeWithoutResult(status ->
+                    lockRepository.release(name, instanceId, properties.getLeaderLease()));
+        }
+    }
+
+    // Обход кредитов: в режиме SHARDED - своя часть id, иначе все кредиты под блокировкой name
+    public void runSweep(String name, Consumer<Shard> sweep) {
+        if (properties.getMode() != SchedulerProperties.Mode.SHARDED) {
+            runExclusive(name, () -> sweep.accept(Shard.ALL));
+            return;
+        }
+        Shard current = currentShard();
+        if (current == null) {
+            log.debug("Job {} skipped: shard is not assigned", name);
+            return;
+        }
+        sweep.accept(current);
+    }
+
+    // Heartbeat и пересчёт шардов - выполняется каждые 10 секунд
+    @Scheduled(fixedDelayString = "${credit.scheduler.heartbeat-interval:10000}")
+    public void heartbeat() {
+        if (properties.getMode() != SchedulerProperties.Mode.SHARDED) {
+            return;
+        }
+        try {
+            List<String> live = transactionTemplate.execute(status ->
+                    lockRepository.heartbeat(instanceId, properties.getInstanceTimeout()));
+            int index = live.indexOf(instanceId);
+            Shard next = index < 0 ? null : new Shard(index, live.size());
+            if (!Objects.equals(next, shard)) {
+                log.info("Scheduler shard of instance {} changed from {} to {}", instanceId, shard, next);
+            }
+            shard = next;
+            shardAssignedAt = System.nanoTime();
+        } catch (DataAccessException e) {
+            log.warn("Scheduler heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        if (properties.getMode() != SchedulerProperties.Mode.SHARDED) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> lockRepository.leave(instanceId));
+        } catch (DataAccessException e) {
+            log.warn("Failed to unregister scheduler instance {}: {}", instanceId, e.getMessage());
+        }
+    }
+
+    // Без свежего heartbeat остальные экземпляры уже могли забрать часть - обход пропускается
+    private Shard currentShard() {
+        Shard current = shard;
+        if (current == null
+                || System.nanoTime() - shardAssignedAt > properties.getInstanceTimeout().toNanos()) {
+            return null;
+        }
+        return current;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "instance";
+        }
+    }
+
+    // Часть кредитов экземпляра: id mod count = index
+    public record Shard(int index, int count) {
+
+        public static final Shard ALL = new Shard(0, 1);
+
+        public boolean owns(long creditId) {
+            return Math.floorMod(creditId, count) == index;
+        }
+    }
+}
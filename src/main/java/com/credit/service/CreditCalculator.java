@@ -0,0 +1,160 @@
+package com.credit.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Финансовые расчёты по кредиту без зависимостей от Spring и JPA:
+ * аннуитетный платёж, график платежей и распределение погашения.
+ */
+public final class CreditCalculator {
+
+    private static final BigDecimal MONTHS_IN_YEAR = BigDecimal.valueOf(12);
+
+    private CreditCalculator() {
+    }
+
+    // Месячная ставка из годовой (доля, не проценты)
+    public static BigDecimal monthlyRate(BigDecimal annualRate) {
+        return annualRate.divide(MONTHS_IN_YEAR, 10, RoundingMode.HALF_UP);
+    }
+
+    // Аннуитетный платёж: P * r * (1 + r)^n / ((1 + r)^n - 1)
+    public static BigDecimal monthlyPayment(BigDecimal amount, BigDecimal monthlyRate, int n) {
+        long amountMinor = FixedPointAmortization.toMinorUnits(amount);
+        long rateUnits = FixedPointAmortization.toRateUnits(monthlyRate);
+        if (FixedPointAmortization.supports(amountMinor, rateUnits, n)) {
+            return BigDecimal.valueOf(FixedPointAmortization.monthlyPayment(amountMinor, rateUnits, n), 2);
+        }
+        return monthlyPaymentExact(amount, monthlyRate, n);
+    }
+
+    // Эталонный расчёт платежа на BigDecimal
+    public static BigDecimal monthlyPaymentExact(BigDecimal amount, BigDecimal monthlyRate, int n) {
+        if (monthlyRate.compareTo(BigDecimal.ZERO) == 0) {
+            return amount.divide(BigDecimal.valueOf(n), 2, RoundingMode.HALF_UP);
+        }
+        BigDecimal onePlusRate = BigDecimal.ONE.add(monthlyRate);
+        BigDecimal onePlusRatePowN = onePlusRate.pow(n);
+
+        return amount
+                .multiply(monthlyRate.multiply(onePlusRatePowN))
+                .divide(onePlusRatePowN.subtract(BigDecimal.ONE), 2, RoundingMode.HALF_UP);
+    }
+
+    // График платежей; последний месяц гасит весь остаток основного долга
+    public static List<ScheduleRow> schedule(BigDecimal amount, BigDecimal monthlyRate,
+                                             BigDecimal monthlyPayment, int durationMonths) {
+        long amountMinor = FixedPointAmortization.toMinorUnits(amount);
+        long rateUnits = FixedPointAmortization.toRateUnits(monthlyRate);
+        long paymentMinor = FixedPointAmortization.toMinorUnits(monthlyPayment);
+        if (!supportsFixedPoint(amountMinor, rateUnits, paymentMinor, durationMonths)) {
+            return scheduleExact(amount, monthlyRate, monthlyPayment, durationMonths);
+        }
+        List<ScheduleRow> rows = new ArrayList<>(durationMonths);
+        FixedPointAmortization.schedule(amountMinor, rateUnits, paymentMinor, durationMonths,
+                (month, total, interest, principal, balance) -> rows.add(new ScheduleRow(month,
+                        BigDecimal.valueOf(total, 2), BigDecimal.valueOf(interest, 2),
+                        BigDecimal.valueOf(principal, 2), BigDecimal.valueOf(balance, 2))));
+        return rows;
+    }
+
+    // Сумма процентов по графику без построения строк графика
+    public static BigDecimal totalInterest(BigDecimal amount, BigDecimal monthlyRate,
+                                           BigDecimal monthlyPayment, int durationMonths) {
+        long amountMinor = FixedPointAmortization.toMinorUnits(amount);
+        long rateUnits = FixedPointAmortization.toRateUnits(monthlyRate);
+        long paymentMinor = FixedPointAmortization.toMinorUnits(monthlyPayment);
+        if (supportsFixedPoint(amountMinor, rateUnits, paymentMinor, durationMonths)) {
+            return BigDecimal.valueOf(FixedPointAmortization.totalInterest(
+                    amountMinor, rateUnits, paymentMinor, durationMonths), 2);
+        }
+        return scheduleExact(amount, monthlyRate, monthlyPayment, durationMonths).stream()
+                .map(ScheduleRow::interestPayment)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    // Эталонный расчёт графика на BigDecimal
+    public static List<ScheduleRow> scheduleExact(BigDecimal amount, BigDecimal monthlyRate,
+                                                  BigDecimal monthlyPayment, int durationMonths) {
+        BigDecimal remainingBalance = amount;
+        List<ScheduleRow> rows = new ArrayList<>(durationMonths);
+
+        for (int month = 1; month <= durationMonths; month++) {
+            BigDecimal interestPayment = remainingBalance
+                    .multiply(monthlyRate)
+                    .setScale(2, RoundingMode.HALF_UP);
+
+            BigDecimal principalPayment = monthlyPayment.subtract(interestPayment);
+
+            if (month == durationMonths) {
+                principalPayment = remainingBalance;
+            }
+
+            remainingBalance = remainingBalance.subtract(principalPayment);
+
+            if (remainingBalance.compareTo(BigDecimal.ZERO) < 0) {
+                remainingBalance = BigDecimal.ZERO;
+            }
+
+            rows.add(new ScheduleRow(month, interestPayment.add(principalPayment),
+                    interestPayment, principalPayment, remainingBalance));
+        }
+        return rows;
+    }
+
+    // Распределение платежа с приоритетом: штрафы -> проценты -> основной долг
+    public static RepaymentAllocation allocateRepayment(BigDecimal payment, BigDecimal accumulatedPenalty,
+                                                        BigDecimal remainingAmount, BigDecimal monthlyRate) {
+        BigDecimal remainingPayment = payment;
+        BigDecimal penaltyPaid = BigDecimal.ZERO;
+        BigDecimal interestPaid = BigDecimal.ZERO;
+        BigDecimal principalPaid = BigDecimal.ZERO;
+
+        if (accumulatedPenalty.compareTo(BigDecimal.ZERO) > 0) {
+            if (remainingPayment.compareTo(accumulatedPenalty) >= 0) {
+                penaltyPaid = accumulatedPenalty;
+                remainingPayment = remainingPayment.subtract(penaltyPaid);
+            } else {
+                penaltyPaid = remainingPayment;
+                remainingPayment = BigDecimal.ZERO;
+            }
+        }
+
+        if (remainingPayment.compareTo(BigDecimal.ZERO) > 0) {
+            BigDecimal interestPayment = remainingAmount
+                    .multiply(monthlyRate)
+                    .setScale(2, RoundingMode.HALF_UP);
+
+            if (remainingPayment.compareTo(interestPayment) >= 0) {
+                interestPaid = interestPayment;
+                remainingPayment = remainingPayment.subtract(interestPaid);
+            } else {
+                interestPaid = remainingPayment;
+                remainingPayment = BigDecimal.ZERO;
+            }
+        }
+
+        if (remainingPayment.compareTo(BigDecimal.ZERO) > 0) {
+            principalPaid = remainingPayment;
+        }
+
+        return new RepaymentAllocation(penaltyPaid, interestPaid, principalPaid);
+    }
+
+    // Платёж не меньше процентов первого месяца гарантирует, что остаток долга не растёт и long не переполнится
+    private static boolean supportsFixedPoint(long amountMinor, long rateUnits, long paymentMinor, int durationMonths) {
+        return FixedPointAmortization.supports(amountMinor, rateUnits, durationMonths)
+                && paymentMinor != Long.MIN_VALUE
+                && paymentMinor >= FixedPointAmortization.interest(amountMinor, rateUnits);
+    }
+
+    public record ScheduleRow(int monthNumber, BigDecimal totalPayment, BigDecimal interestPayment,
+                              BigDecimal principalPayment, BigDecimal remainingBalance) {
+    }
+
+    public record RepaymentAllocation(BigDecimal penaltyPaid, BigDecimal interestPaid, BigDecimal principalPaid) {
+    }
+}
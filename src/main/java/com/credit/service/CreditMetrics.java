@@ -0,0 +1,76 @@
+package com.credit.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Метрики сервиса: длительность и исход операций с кредитами, статистика плановых задач.
+ */
+@Component
+@RequiredArgsConstructor
+public class CreditMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    // Замер операции с тегом outcome=success|error
+    public <T> T recordOperation(String operation, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = action.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder("credit.operation")
+                    .description("Duration of credit operations")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    public JobRun startJob(String job) {
+        return new JobRun(job, Timer.start(meterRegistry));
+    }
+
+    public final class JobRun {
+        private final String job;
+        private final Timer.Sample sample;
+
+        private JobRun(String job, Timer.Sample sample) {
+            this.job = job;
+            this.sample = sample;
+        }
+
+        // Количество кредитов, изменённых этапом прохода
+        public void stage(String stage, long rowsChanged) {
+            Counter.builder("credit.scheduler.stage.changed")
+                    .description("Credits changed by a stage of a scheduled job")
+                    .tag("job", job)
+                    .tag("stage", stage)
+                    .register(meterRegistry)
+                    .increment(rowsChanged);
+        }
+
+        // Фиксирует длительность прохода, количество просмотренных и изменённых строк
+        public void finish(long rowsScanned, long rowsChanged) {
+            sample.stop(Timer.builder("credit.scheduler.job")
+                    .description("Duration of scheduled jobs")
+                    .tag("job", job)
+                    .register(meterRegistry));
+            Counter.builder("credit.scheduler.rows.scanned")
+                    .tag("job", job)
+                    .register(meterRegistry)
+                    .increment(rowsScanned);
+            Counter.builder("credit.scheduler.rows.changed")
+                    .tag("job", job)
+                    .register(meterRegistry)
+                    .increment(rowsChanged);
+        }
+    }
+}
@@ -1,9 +1,6 @@
 package com.credit.service;
 
-import com.credit.entity.Credit;
-import com.credit.entity.CreditStatus;
 import com.credit.entity.CreditTariff;
-import com.credit.repository.CreditRepository;
 import com.credit.repository.CreditTariffRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,7 +9,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,92 +18,47 @@ import java.util.List;
 @Slf4j
 public class CreditSchedulerService {
 
-    private final CreditRepository creditRepository;
     private final CreditTariffRepository creditTariffRepository;
+    private final CreditTickPipeline creditTickPipeline;
+    private final TariffCache tariffCache;
+    private final CreditMetrics creditMetrics;
+    private final ClusterCoordinator clusterCoordinator;
     
     private static final BigDecimal OVERDUE_PENALTY_RATE = new BigDecimal("0.1");
 
-    // Проверка просроченных кредитов - выполняется каждую минуту
+    // Минутный проход по кредитам: просрочка, затем штрафы - выполняется каждую минуту
     @Scheduled(cron = "0 * * * * ?") 
-    @Transactional
-    public void checkOverdueCredits() {
-        log.info("Starting overdue credits check");
-        
-        List<Credit> activeCredits = creditRepository.findByStatus(CreditStatus.ACTIVE);
-        LocalDateTime now = LocalDateTime.now();
-        int overdueCount = 0;
-
-        for (Credit credit : activeCredits) {
-            if (credit.getNextPaymentDate() != null && credit.getNextPaymentDate().isBefore(now)) {
-                credit.setStatus(CreditStatus.OVERDUE);
-                credit.setOverdueDays(1); 
-                creditRepository.save(credit);
-                overdueCount++;
-                
-                log.warn("Credit {} is overdue. Payment was due: {}", 
-                        credit.getId(), 
-                        credit.getNextPaymentDate());
-            }
-        }
-        
-        log.info("Overdue credits check completed. Found {} overdue credits", overdueCount);
+    public void processCreditsTick() {
+        clusterCoordinator.runSweep("credit_minute_tick", this::processCreditsTick);
     }
 
-    // Начисление штрафов за просрочку - выполняется каждую минуту
-    @Scheduled(cron = "0 * * * * ?") 
-    @Transactional
-    public void applyOverduePenalties() {
-        log.info("Starting overdue penalties application");
+    private void processCreditsTick(ClusterCoordinator.Shard shard) {
+        log.info("Starting credit minute tick");
+        CreditMetrics.JobRun run = creditMetrics.startJob("credit_minute_tick");
         
-        List<Credit> overdueCredits = creditRepository.findByStatus(CreditStatus.OVERDUE);
-        int penaltiesApplied = 0;
-
-        for (Credit credit : overdueCredits) {
-            BigDecimal penalty = credit.getMonthlyPayment()
-                    .multiply(OVERDUE_PENALTY_RATE)
-                    .setScale(2, RoundingMode.HALF_UP);
-            
-            BigDecimal newPenalty = credit.getAccumulatedPenalty().add(penalty);
-            credit.setAccumulatedPenalty(newPenalty);
-            
-            credit.setOverdueDays(credit.getOverdueDays() + 1);
-            
-            creditRepository.save(credit);
-            penaltiesApplied++;
-            
-            log.info("Applied penalty {} to credit {}. Total accumulated penalty: {}, Overdue days: {}", 
-                    penalty, credit.getId(), newPenalty, credit.getOverdueDays());
-        }
+        CreditTickPipeline.Result result = creditTickPipeline.run(OVERDUE_PENALTY_RATE, LocalDateTime.now(), shard);
         
-        log.info("Overdue penalties application completed. Applied {} penalties", penaltiesApplied);
-    }
-
-    // Обновление дат следующих платежей - выполняется каждую минуту
-    @Scheduled(cron = "0 * * * * ?") 
-    @Transactional
-    public void updateNextPaymentDates() {
-        log.info("Starting next payment dates update");
-        
-        List<Credit> activeCredits = creditRepository.findByStatus(CreditStatus.ACTIVE);
-        LocalDateTime now = LocalDateTime.now();
-
-        for (Credit credit : activeCredits) {
-            if (credit.getNextPaymentDate() != null && credit.getNextPaymentDate().isBefore(now)) {
-                credit.setNextPaymentDate(credit.getNextPaymentDate().plusMinutes(1));
-                creditRepository.save(credit);
-            }
-        }
-        
-        log.info("Next payment dates update completed");
+        run.stage("overdue", result.overdue());
+        run.stage("penalty", result.penalties());
+        run.stage("conflict", result.conflicts());
+        run.finish(result.scanned(), result.updated());
+        log.info("Credit minute tick completed. Overdue: {}, penalties: {}, conflicts: {}",
+                result.overdue(), result.penalties(), result.conflicts());
     }
 
     // Деактивация просроченных тарифов - выполняется ежедневно в полночь
     @Scheduled(cron = "0 0 0 * * ?")
     @Transactional
     public void deactivateExpiredTariffs() {
+        clusterCoordinator.runExclusive("deactivate_expired_tariffs", this::deactivateTariffs);
+    }
+
+    private void deactivateTariffs() {
         log.info("Starting expired tariffs deactivation");
+        CreditMetrics.JobRun run = creditMetrics.startJob("deactivate_expired_tariffs");
         
-        List<CreditTariff> activeTariffs = creditTariffRepository.findAll().stream()
+        List<CreditTariff> tariffs = creditTariffRepository.findAll();
+        List<CreditTariff> activeTariffs = tariffs.stream()
                 .filter(tariff -> tariff.getIsActive() && tariff.getDueDate().isBefore(LocalDate.now()))
                 .toList();
         
@@ -124,6 +75,11 @@ public class CreditSchedulerService {
                     tariff.getDueDate());
         }
         
+        if (deactivatedCount > 0) {
+            tariffCache.refreshAfterCommit();
+        }
+        
+        run.finish(tariffs.size(), deactivatedCount);        
         log.info("Expired tariffs deactivation completed. Deactivated {} tariffs", deactivatedCount);
     }
 }
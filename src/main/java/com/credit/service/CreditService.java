@@ -1,22 +1,29 @@
 package com.credit.service;
 
-import com.credit.client.CoreServiceClient;
+import com.credit.config.CreditListingProperties;
 import com.credit.dto.*;
 import com.credit.entity.*;
 import com.credit.repository.CreditPaymentRepository;
 import com.credit.repository.CreditRepository;
 import com.credit.repository.CreditTariffRepository;
-import com.credit.repository.PaymentScheduleRepository;
+import com.credit.repository.MoneyOperationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -25,42 +32,34 @@ public class CreditService {
 
     private final CreditRepository creditRepository;
     private final CreditTariffRepository tariffRepository;
+    private final TariffCache tariffCache;
     private final CreditPaymentRepository paymentRepository;
-    private final PaymentScheduleRepository scheduleRepository;
-    private final CoreServiceClient coreServiceClient;
+    private final PaymentScheduleService paymentScheduleService;
+    private final MoneyOperationRepository moneyOperationRepository;
+    private final BankAccountOwnershipCache bankAccountOwnershipCache;
+    private final CreditListingProperties listingProperties;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final DueDateIndex dueDateIndex;
+
+    private static final int EXPORT_FLUSH_EVERY = 500;
 
     @Transactional
     public CreditResponse takeCredit(String userId, String authHeader, TakeCreditRequest request) {
         log.info("Taking new credit for owner: {}", userId);
 
-        CreditTariff tariff = tariffRepository.findById(request.getTariffId())
+        // Проверяем что банковский счёт принадлежит пользователю (до первого обращения к БД,
+        // чтобы не держать соединение во время вызова Core сервиса)
+        validateBankAccountOwnership(userId, authHeader, request.getBankAccountId());
+
+        CreditTariff tariff = tariffCache.findEntity(request.getTariffId())
+                .or(() -> tariffRepository.findById(request.getTariffId()))
                 .orElseThrow(() -> new org.springframework.web.server.ResponseStatusException(
                         org.springframework.http.HttpStatus.NOT_FOUND, "Tariff not found with id: " + request.getTariffId()));
 
-        // Проверяем что банковский счёт принадлежит пользователю
-        validateBankAccountOwnership(authHeader, request.getBankAccountId());
-
-        // Зачисляем деньги на банковский счет через Core сервис
-        log.info("Applying credit {} to bank account {}", request.getAmount(), request.getBankAccountId());
-        coreServiceClient.applyCredit(request.getBankAccountId(), new MoneyOperationDto(request.getAmount()));
-        
-        BigDecimal monthlyRate = tariff.getInterestRate()
-                .divide(BigDecimal.valueOf(12), 10, RoundingMode.HALF_UP);
-        
+        BigDecimal monthlyRate = CreditCalculator.monthlyRate(tariff.getInterestRate());
         int n = request.getDurationMonths();
-        BigDecimal monthlyPayment;
-        
-        if (monthlyRate.compareTo(BigDecimal.ZERO) == 0) {
-            monthlyPayment = request.getAmount()
-                    .divide(BigDecimal.valueOf(n), 2, RoundingMode.HALF_UP);
-        } else {
-            BigDecimal onePlusRate = BigDecimal.ONE.add(monthlyRate);
-            BigDecimal onePlusRatePowN = onePlusRate.pow(n);
-            
-            monthlyPayment = request.getAmount()
-                    .multiply(monthlyRate.multiply(onePlusRatePowN))
-                    .divide(onePlusRatePowN.subtract(BigDecimal.ONE), 2, RoundingMode.HALF_UP);
-        }
+        BigDecimal monthlyPayment = CreditCalculator.monthlyPayment(request.getAmount(), monthlyRate, n);
 
         Credit credit = new Credit();
         credit.setOwnerId(userId);
@@ -69,15 +68,22 @@ public class CreditService {
         credit.setRemainingAmount(request.getAmount()); 
         credit.setMonthlyPayment(monthlyPayment);
         credit.setDurationMonths(n);
+        credit.setTotalInterest(CreditCalculator.totalInterest(request.getAmount(), monthlyRate, monthlyPayment, n));
         credit.setRemainingMonths(n);
         credit.setStatus(CreditStatus.ACTIVE);
+        credit.setDisbursementStatus(MoneyOperationStatus.PENDING);
         credit.setIssueDate(LocalDateTime.now());
         credit.setNextPaymentDate(LocalDateTime.now().plusMinutes(1));
 
         Credit savedCredit = creditRepository.save(credit);
         log.info("Credit created with id: {}. Monthly payment: {}", savedCredit.getId(), monthlyPayment);
 
-        generatePaymentSchedule(savedCredit, monthlyRate, monthlyPayment);
+        paymentScheduleService.onCreditIssued(savedCredit, monthlyRate, monthlyPayment);
+
+        // Зачисление денег на банковский счет уходит в Core сервис через outbox
+        log.info("Queueing credit {} disbursement to bank account {}", request.getAmount(), request.getBankAccountId());
+        enqueueMoneyOperation(MoneyOperationType.APPLY_CREDIT, request.getBankAccountId(), request.getAmount(),
+                savedCredit.getId(), null);
 
         return mapToResponse(savedCredit);
     }
@@ -87,6 +93,9 @@ public class CreditService {
     public CreditPaymentResponse repayCredit(String userId, String authHeader, Long creditId, RepayCreditRequest request) {
         log.info("Repaying credit {} with amount {} for user {}", creditId, request.getAmount(), userId);
 
+        // Проверяем что банковский счёт принадлежит пользователю
+        validateBankAccountOwnership(userId, authHeader, request.getBankAccountId());
+
         Credit credit = creditRepository.findById(creditId)
                 .orElseThrow(() -> new org.springframework.web.server.ResponseStatusException(
                         org.springframework.http.HttpStatus.NOT_FOUND, "Credit not found with id: " + creditId));
@@ -103,65 +112,141 @@ public class CreditService {
                     "Credit cannot be repaid. Current status: " + credit.getStatus());
         }
 
-        // Проверяем что банковский счёт принадлежит пользователю
-        validateBankAccountOwnership(authHeader, request.getBankAccountId());
+        // До подтверждения зачисления кредит ещё может быть отменён - списание осталось бы нераспределённым
+        if (credit.getDisbursementStatus() != MoneyOperationStatus.CONFIRMED) {
+            throw new org.springframework.web.server.ResponseStatusException(
+                    org.springframework.http.HttpStatus.BAD_REQUEST,
+                    "Credit cannot be repaid until its disbursement is confirmed. Disbursement status: "
+                            + credit.getDisbursementStatus());
+        }
 
-        // Списываем деньги с банковского счета через Core сервис
-        log.info("Paying credit {} from bank account {}", request.getAmount(), request.getBankAccountId());
-        coreServiceClient.payCredit(request.getBankAccountId(), new MoneyOperationDto(request.getAmount()));
+        CreditPayment payment = new CreditPayment();
+        payment.setCredit(credit);
+        payment.setAmount(request.getAmount());
+        payment.setPaymentType(PaymentType.MANUAL_REPAYMENT);
+        payment.setPaymentDate(LocalDateTime.now());
+        payment.setStatus(MoneyOperationStatus.PENDING);
+        CreditPayment savedPayment = paymentRepository.save(payment);
 
-        BigDecimal remainingPayment = request.getAmount();
-        BigDecimal penaltyPaid = BigDecimal.ZERO;
-        BigDecimal interestPaid = BigDecimal.ZERO;
-        BigDecimal principalPaid = BigDecimal.ZERO;
-        
-        if (credit.getAccumulatedPenalty().compareTo(BigDecimal.ZERO) > 0) {
-            if (remainingPayment.compareTo(credit.getAccumulatedPenalty()) >= 0) {
-                penaltyPaid = credit.getAccumulatedPenalty();
-                remainingPayment = remainingPayment.subtract(penaltyPaid);
+        // Списание денег с банковского счета уходит в Core сервис через outbox,
+        // распределение платежа по кредиту выполняется после подтверждения списания
+        log.info("Queueing payment {} of credit {} from bank account {}",
+                request.getAmount(), creditId, request.getBankAccountId());
+        enqueueMoneyOperation(MoneyOperationType.PAY_CREDIT, request.getBankAccountId(), request.getAmount(),
+                creditId, savedPayment.getId());
+
+        return mapPaymentToResponse(savedPayment);
+    }
+
+    // Подтверждение денежной операции Core сервисом
+    @Transactional
+    public void confirmMoneyOperation(Long operationId) {
+        MoneyOperation operation = moneyOperationRepository.findById(operationId).orElse(null);
+        if (operation == null || operation.getStatus() != MoneyOperationStatus.PENDING) {
+            return;
+        }
+        operation.setStatus(MoneyOperationStatus.CONFIRMED);
+        operation.setLockedUntil(null);
+        operation.setProcessedAt(LocalDateTime.now());
+
+        Credit credit = creditRepository.findById(operation.getCreditId())
+                .orElseThrow(() -> new IllegalStateException("Credit not found with id: " + operation.getCreditId()));
+        if (operation.getOperationType() == MoneyOperationType.APPLY_CREDIT) {
+            credit.setDisbursementStatus(MoneyOperationStatus.CONFIRMED);
+            // Деньги у клиента: с этого момента кредит обслуживается планировщиком
+            dueDateIndex.onCreditChanged(credit);
+            log.info("Credit {} disbursement confirmed", credit.getId());
+        } else {
+            CreditPayment payment = paymentRepository.findById(operation.getPaymentId())
+                    .orElseThrow(() -> new IllegalStateException("Payment not found with id: " + operation.getPaymentId()));
+            payment.setStatus(MoneyOperationStatus.CONFIRMED);
+            if (credit.getStatus() != CreditStatus.ACTIVE && credit.getStatus() != CreditStatus.OVERDUE) {
+                // Кредит закрыт более ранним платежом или отменён: деньги списаны, но распределять их некуда
+                payment.setUnallocatedAmount(payment.getAmount());
+                log.warn("Payment {} of credit {} confirmed after credit became {}; {} left unallocated",
+                        payment.getId(), credit.getId(), credit.getStatus(), payment.getAmount());
+                return;
+            }
+            BigDecimal unallocated = allocateRepayment(credit, payment.getAmount());
+            if (unallocated.signum() > 0) {
+                payment.setUnallocatedAmount(unallocated);
+                log.warn("Payment {} of credit {} overpaid the credit by {}", payment.getId(), credit.getId(), unallocated);
+            }
+        }
+    }
+
+    // Окончательный отказ Core сервиса: кредит отменяется, платёж помечается неуспешным
+    @Transactional
+    public void failMoneyOperation(Long operationId, String error) {
+        MoneyOperation operation = moneyOperationRepository.findById(operationId).orElse(null);
+        if (operation == null || operation.getStatus() != MoneyOperationStatus.PENDING) {
+            return;
+        }
+        operation.setStatus(MoneyOperationStatus.FAILED);
+        operation.setLockedUntil(null);
+        operation.setLastError(error);
+        operation.setProcessedAt(LocalDateTime.now());
+
+        if (operation.getOperationType() == MoneyOperationType.APPLY_CREDIT) {
+            Credit credit = creditRepository.findById(operation.getCreditId())
+                    .orElseThrow(() -> new IllegalStateException("Credit not found with id: " + operation.getCreditId()));
+            credit.setDisbursementStatus(MoneyOperationStatus.FAILED);
+            credit.setStatus(CreditStatus.CANCELLED);
+            credit.setNextPaymentDate(null);
+            dueDateIndex.onCreditChanged(credit);
+            log.warn("Credit {} cancelled: disbursement failed: {}", credit.getId(), error);
+        } else {
+            CreditPayment payment = paymentRepository.findById(operation.getPaymentId())
+                    .orElseThrow(() -> new IllegalStateException("Payment not found with id: " + operation.getPaymentId()));
+            payment.setStatus(MoneyOperationStatus.FAILED);
+            log.warn("Payment {} of credit {} failed: {}", payment.getId(), operation.getCreditId(), error);
+        }
+    }
+
+    private void enqueueMoneyOperation(MoneyOperationType type, String bankAccountId, BigDecimal amount,
+                                       Long creditId, Long paymentId) {
+        MoneyOperation operation = new MoneyOperation();
+        operation.setOperationType(type);
+        operation.setStatus(MoneyOperationStatus.PENDING);
+        operation.setIdempotencyKey(UUID.randomUUID().toString());
+        operation.setBankAccountId(bankAccountId);
+        operation.setAmount(amount);
+        operation.setCreditId(creditId);
+        operation.setPaymentId(paymentId);
+        moneyOperationRepository.save(operation);
+    }
+
+    // Распределение платежа с приоритетом: штрафы -> проценты -> основной долг; возвращает переплату
+    private BigDecimal allocateRepayment(Credit credit, BigDecimal amount) {
+        Long creditId = credit.getId();
+        CreditCalculator.RepaymentAllocation allocation = CreditCalculator.allocateRepayment(
+                amount,
+                credit.getAccumulatedPenalty(),
+                credit.getRemainingAmount(),
+                CreditCalculator.monthlyRate(credit.getTariff().getInterestRate()));
+        BigDecimal penaltyPaid = allocation.penaltyPaid();
+        BigDecimal interestPaid = allocation.interestPaid();
+        BigDecimal principalPaid = allocation.principalPaid();
+        BigDecimal overpaid = principalPaid.subtract(credit.getRemainingAmount()).max(BigDecimal.ZERO);
+
+        if (penaltyPaid.compareTo(BigDecimal.ZERO) > 0) {
+            if (penaltyPaid.compareTo(credit.getAccumulatedPenalty()) == 0) {
                 credit.setAccumulatedPenalty(BigDecimal.ZERO);
                 credit.setOverdueDays(0);
             } else {
-                penaltyPaid = remainingPayment;
                 credit.setAccumulatedPenalty(credit.getAccumulatedPenalty().subtract(penaltyPaid));
-                remainingPayment = BigDecimal.ZERO;
-            }
-        }
-        
-        if (remainingPayment.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal monthlyRate = credit.getTariff().getInterestRate()
-                    .divide(BigDecimal.valueOf(12), 10, RoundingMode.HALF_UP);
-            
-            BigDecimal interestPayment = credit.getRemainingAmount()
-                    .multiply(monthlyRate)
-                    .setScale(2, RoundingMode.HALF_UP);
-            
-            if (remainingPayment.compareTo(interestPayment) >= 0) {
-                interestPaid = interestPayment;
-                remainingPayment = remainingPayment.subtract(interestPaid);
-            } else {
-                interestPaid = remainingPayment;
-                remainingPayment = BigDecimal.ZERO;
             }
         }
-        
-        if (remainingPayment.compareTo(BigDecimal.ZERO) > 0) {
-            principalPaid = remainingPayment;
+
+        if (principalPaid.compareTo(BigDecimal.ZERO) > 0) {
             BigDecimal newRemaining = credit.getRemainingAmount().subtract(principalPaid);
             credit.setRemainingAmount(newRemaining.max(BigDecimal.ZERO));
             
-            if (principalPaid.compareTo(BigDecimal.ZERO) > 0 && credit.getRemainingMonths() > 0) {
+            if (credit.getRemainingMonths() > 0) {
                 credit.setRemainingMonths(credit.getRemainingMonths() - 1);
             }
         }
 
-        CreditPayment payment = new CreditPayment();
-        payment.setCredit(credit);
-        payment.setAmount(request.getAmount());
-        payment.setPaymentType(PaymentType.MANUAL_REPAYMENT);
-        payment.setPaymentDate(LocalDateTime.now());
-        CreditPayment savedPayment = paymentRepository.save(payment);
-
         if (credit.getRemainingAmount().compareTo(BigDecimal.ZERO) <= 0 || credit.getRemainingMonths() == 0) {
             credit.setStatus(CreditStatus.PAID_OFF);
             credit.setRemainingAmount(BigDecimal.ZERO);
@@ -179,21 +264,13 @@ public class CreditService {
         }
 
         creditRepository.save(credit);
-
-        return mapPaymentToResponse(savedPayment);
+        dueDateIndex.onCreditChanged(credit);
+        return overpaid;
     }
 
-    private void validateBankAccountOwnership(String authHeader, String bankAccountId) {
-        log.info("Validating bank account {} ownership via /api/bank-accounts/my", bankAccountId);
-        List<com.credit.dto.BankAccountDto> accounts;
-        try {
-            accounts = coreServiceClient.getMyBankAccounts(authHeader);
-        } catch (Exception e) {
-            log.error("Failed to fetch bank accounts from Core Service: {}", e.getMessage());
-            throw new RuntimeException("Unable to verify bank account ownership: " + e.getMessage(), e);
-        }
-        boolean owned = accounts.stream().anyMatch(a -> bankAccountId.equalsIgnoreCase(a.getId()));
-        if (!owned) {
+    private void validateBankAccountOwnership(String userId, String authHeader, String bankAccountId) {
+        log.info("Validating bank account {} ownership for user {}", bankAccountId, userId);
+        if (!bankAccountOwnershipCache.isOwnedBy(userId, authHeader, bankAccountId)) {
             throw new org.springframework.web.server.ResponseStatusException(
                     org.springframework.http.HttpStatus.FORBIDDEN,
                     "Access denied: bank account does not belong to the authenticated user");
@@ -204,7 +281,7 @@ public class CreditService {
     @Transactional(readOnly = true)
     public CreditResponse getCreditById(Long id) {
         log.info("Fetching credit with id: {}", id);
-        Credit credit = creditRepository.findById(id)
+        Credit credit = creditRepository.findWithTariffById(id)
                 .orElseThrow(() -> new org.springframework.web.server.ResponseStatusException(
                         org.springframework.http.HttpStatus.NOT_FOUND, "Credit not found with id: " + id));
         return mapToResponse(credit);
@@ -214,11 +291,51 @@ public class CreditService {
     @Transactional(readOnly = true)
     public List<CreditResponse> getAllCredits() {
         log.info("Fetching all credits");
-        return creditRepository.findAll().stream()
+        return creditRepository.findAllWithTariff().stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    // Постраничное получение кредитов по курсору (ID последнего кредита предыдущей страницы)
+    @Transactional(readOnly = true)
+    public CreditPageResponse getCreditsPage(Long afterId, Integer size) {
+        int pageSize = size == null ? listingProperties.getDefaultPageSize() : size;
+        if (pageSize < 1 || pageSize > listingProperties.getMaxPageSize()) {
+            throw new org.springframework.web.server.ResponseStatusException(
+                    org.springframework.http.HttpStatus.BAD_REQUEST,
+                    "Page size must be between 1 and " + listingProperties.getMaxPageSize());
+        }
+        long cursor = afterId == null ? 0L : afterId;
+        log.info("Fetching credits page after id {} with size {}", cursor, pageSize);
+
+        List<CreditResponse> items = creditRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(pageSize)).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+        Long nextCursor = items.size() < pageSize ? null : items.get(items.size() - 1).getId();
+        return new CreditPageResponse(items, nextCursor);
+    }
+
+    // Выгрузка всех кредитов в NDJSON по курсору БД, без накопления в памяти
+    @Transactional(readOnly = true)
+    public void exportAllCredits(OutputStream out) throws IOException {
+        log.info("Exporting all credits as NDJSON");
+        long exported = 0;
+        try (Stream<Credit> credits = creditRepository.streamAllOrderById()) {
+            Iterator<Credit> iterator = credits.iterator();
+            while (iterator.hasNext()) {
+                Credit credit = iterator.next();
+                out.write(objectMapper.writeValueAsBytes(mapToResponse(credit)));
+                out.write('\n');
+                entityManager.detach(credit);
+                if (++exported % EXPORT_FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        log.info("Exported {} credits", exported);
+    }
+
     // Получение кредитов пользователя
     @Transactional(readOnly = true)
     public List<CreditResponse> getCreditsByUserId(String userId) {
@@ -242,14 +359,13 @@ public class CreditService {
     public CreditStatisticsResponse getCreditStatistics(Long creditId) {
         log.info("Calculating statistics for credit: {}", creditId);
         
-        Credit credit = creditRepository.findById(creditId)
+        Credit credit = creditRepository.findWithTariffById(creditId)
                 .orElseThrow(() -> new RuntimeException("Credit not found with id: " + creditId));
         
-        List<PaymentSchedule> schedule = scheduleRepository.findByCreditIdOrderByMonthNumber(creditId);
-        
-        BigDecimal totalInterest = schedule.stream()
-                .map(PaymentSchedule::getInterestPayment)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Кредиты, выданные до появления total_interest и не заполненные миграцией, считаются по графику
+        BigDecimal totalInterest = credit.getTotalInterest() != null
+                ? credit.getTotalInterest()
+                : paymentScheduleService.getTotalInterest(credit);
         
         BigDecimal totalToRepay = credit.getAmount().add(totalInterest);
         
@@ -283,6 +399,7 @@ public class CreditService {
                 credit.getAccumulatedPenalty(),
                 credit.getOverdueDays(),
                 credit.getStatus(),
+                credit.getDisbursementStatus(),
                 credit.getIssueDate(),
                 credit.getNextPaymentDate(),
                 credit.getCreatedAt(),
@@ -297,76 +414,19 @@ public class CreditService {
                 payment.getAmount(),
                 payment.getPaymentType(),
                 payment.getPaymentDate(),
+                payment.getStatus(),
+                payment.getUnallocatedAmount(),
                 payment.getCreatedAt()
         );
     }
 
-    
-    private void generatePaymentSchedule(Credit credit, BigDecimal monthlyRate, BigDecimal monthlyPayment) {
-        BigDecimal remainingBalance = credit.getAmount();
-        LocalDateTime paymentDate = credit.getIssueDate().plusMinutes(1);
-        
-        log.info("Generating payment schedule for credit {}. Amount: {}, Rate: {}, Payment: {}", 
-                credit.getId(), credit.getAmount(), monthlyRate, monthlyPayment);
-
-        for (int month = 1; month <= credit.getDurationMonths(); month++) {
-            BigDecimal interestPayment = remainingBalance
-                    .multiply(monthlyRate)
-                    .setScale(2, RoundingMode.HALF_UP);
-
-            BigDecimal principalPayment = monthlyPayment.subtract(interestPayment);
-            
-            if (month == credit.getDurationMonths()) {
-                principalPayment = remainingBalance;
-            }
-            
-            remainingBalance = remainingBalance.subtract(principalPayment);
-            
-            if (remainingBalance.compareTo(BigDecimal.ZERO) < 0) {
-                remainingBalance = BigDecimal.ZERO;
-            }
-
-            PaymentSchedule schedule = new PaymentSchedule();
-            schedule.setCredit(credit);
-            schedule.setMonthNumber(month);
-            schedule.setPaymentDate(paymentDate);
-            schedule.setTotalPayment(interestPayment.add(principalPayment));
-            schedule.setInterestPayment(interestPayment);
-            schedule.setPrincipalPayment(principalPayment);
-            schedule.setRemainingBalance(remainingBalance);
-            schedule.setPaid(false);
-
-            scheduleRepository.save(schedule);
-
-            paymentDate = paymentDate.plusMinutes(1);
-            
-            log.debug("Month {}: Principal={}, Interest={}, Balance={}", 
-                    month, principalPayment, interestPayment, remainingBalance);
-        }
-
-        log.info("Payment schedule generated for credit {}. Final balance: {}", credit.getId(), remainingBalance);
-    }
-
     // Получение графика платежей по кредиту
     @Transactional(readOnly = true)
     public List<PaymentScheduleResponse> getPaymentSchedule(Long creditId) {
         log.info("Fetching payment schedule for credit: {}", creditId);
-        return scheduleRepository.findByCreditIdOrderByMonthNumber(creditId).stream()
-                .map(this::mapScheduleToResponse)
-                .collect(Collectors.toList());
-    }
-
-    private PaymentScheduleResponse mapScheduleToResponse(PaymentSchedule schedule) {
-        return new PaymentScheduleResponse(
-                schedule.getId(),
-                schedule.getCredit().getId(),
-                schedule.getMonthNumber(),
-                schedule.getPaymentDate(),
-                schedule.getTotalPayment(),
-                schedule.getInterestPayment(),
-                schedule.getPrincipalPayment(),
-                schedule.getRemainingBalance(),
-                schedule.getPaid()
-        );
+        Credit credit = creditRepository.findWithTariffById(creditId)
+                .orElseThrow(() -> new org.springframework.web.server.ResponseStatusException(
+                        org.springframework.http.HttpStatus.NOT_FOUND, "Credit not found with id: " + creditId));
+        return paymentScheduleService.getSchedule(credit);
     }
 }
@@ -4,6 +4,7 @@ import com.credit.dto.CreditTariffRequest;
 import com.credit.dto.CreditTariffResponse;
 import com.credit.entity.CreditTariff;
 import com.credit.repository.CreditTariffRepository;
+import com.credit.util.EtagUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -12,7 +13,6 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,6 +20,8 @@ import java.util.stream.Collectors;
 public class CreditTariffService {
 
     private final CreditTariffRepository creditTariffRepository;
+    private final TariffCache tariffCache;
+
     // Создание нового кредитного тарифа    
     @Transactional
     public CreditTariffResponse createTariff(CreditTariffRequest request) {
@@ -38,25 +40,40 @@ public class CreditTariffService {
         CreditTariff savedTariff = creditTariffRepository.save(tariff);
         log.info("Credit tariff created with id: {}", savedTariff.getId());
         
-        return mapToResponse(savedTariff);
+        tariffCache.refreshAfterCommit();
+        
+        return tariffCache.toResponse(savedTariff);
     }
 
-    // Получение тарифа по ID
-    @Transactional(readOnly = true)
-    public CreditTariffResponse getTariffById(Long id) {
+    // Получение тарифа по ID вместе с ETag
+    public TariffCache.Tagged getTariffById(Long id) {
         log.info("Fetching tariff with id: {}", id);
+        TariffCache.Snapshot snapshot = tariffCache.getSnapshot();
+        CreditTariffResponse cached = snapshot.byId().get(id);
+        if (cached != null) {
+            return new TariffCache.Tagged(cached, snapshot.etagById().get(id));
+        }
+        if (tariffCache.isFresh(snapshot)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Tariff not found with id: " + id);
+        }
+        // Снимок давно не обновлялся: тариф мог быть создан на другом экземпляре сервиса
         CreditTariff tariff = creditTariffRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Tariff not found with id: " + id));
-        return mapToResponse(tariff);
+        tariffCache.requestRefresh(id);
+        CreditTariffResponse response = tariffCache.toResponse(tariff);
+        return new TariffCache.Tagged(response, EtagUtil.etag(response));
     }
 
     // Получение списка всех тарифов
     @Transactional(readOnly = true)
     public List<CreditTariffResponse> getAllTariffs() {
         log.info("Fetching all tariffs");
-        return creditTariffRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return tariffCache.getSnapshot().all();
+    }
+
+    // Снимок тарифов вместе с ETag для условных запросов
+    public TariffCache.Snapshot getTariffsSnapshot() {
+        return tariffCache.getSnapshot();
     }
 
     // Удаление тарифа
@@ -66,17 +83,7 @@ public class CreditTariffService {
         CreditTariff tariff = creditTariffRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Tariff not found with id: " + id));
         creditTariffRepository.delete(tariff);
+        tariffCache.refreshAfterCommit();
         log.info("Tariff with id {} deleted successfully", id);
     }
-
-    private CreditTariffResponse mapToResponse(CreditTariff tariff) {
-        return new CreditTariffResponse(
-                tariff.getId(),
-                tariff.getName(),
-                tariff.getInterestRate().multiply(java.math.BigDecimal.valueOf(100)).stripTrailingZeros(),
-                tariff.getDueDate(),
-                tariff.getIsActive(),
-                tariff.getCreatedAt()
-        );
-    }
 }
@@ -0,0 +1,285 @@
+package com.credit.service;
+
+import com.credit.config.TickPipelineProperties;
+import com.credit.entity.CreditStatus;
+import com.credit.repository.CreditRepository;
+import com.credit.repository.CreditTickRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Минутный проход планировщика: кандидаты читаются один раз, к каждому кредиту по порядку применяются
+ * этапы 1) перевод в OVERDUE, 2) начисление штрафа, и результат порции записывается одним JDBC batch.
+ * Кредиты с наступившей датой платежа берутся из DueDateIndex (до его загрузки - из БД), OVERDUE кредиты
+ * без штрафа за tick - порциями по ключу в диапазонах ID, которые обрабатываются параллельно.
+ * Каждая порция - отдельная короткая транзакция; запись проверяет version. Кредиты, изменённые погашением
+ * после чтения, перечитываются и обрабатываются повторно в той же порции; если конфликт не разрешился
+ * за MAX_CONFLICT_RETRIES попыток, курсор диапазона не сдвигается дальше них, и они читаются следующей порцией.
+ */
+@Component
+@Slf4j
+public class CreditTickPipeline {
+
+    private static final int MAX_CONFLICT_RETRIES = 3;
+
+    private final CreditTickRepository tickRepository;
+    private final CreditRepository creditRepository;
+    private final DueDateIndex dueDateIndex;
+    private final TickPipelineProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+
+    public CreditTickPipeline(CreditTickRepository tickRepository,
+                              CreditRepository creditRepository,
+                              DueDateIndex dueDateIndex,
+                              TickPipelineProperties properties,
+                              PlatformTransactionManager transactionManager) {
+        this.tickRepository = tickRepository;
+        this.creditRepository = creditRepository;
+        this.dueDateIndex = dueDateIndex;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, properties.getParallelism()));
+    }
+
+    // Штраф rate * monthlyPayment начисляется не более одного раза за минуту (tick)
+    public Result run(BigDecimal penaltyRate, LocalDateTime now, ClusterCoordinator.Shard shard) {
+        Pass pass = new Pass(penaltyRate, now, now.truncatedTo(ChronoUnit.MINUTES), shard, dueDateIndex.isReady(),
+                Math.max(1, properties.getChunkSize()));
+
+        CreditTickRepository.IdRange range = tickRepository.findIdRange(!pass.useIndex());
+        if (range == null) {
+            // OVERDUE кредитов нет, но в индексе могут быть наступившие даты платежей
+            return pass.useIndex() ? runRange(0, 0, pass) : Result.EMPTY;
+        }
+
+        int parallelism = Math.max(1, properties.getParallelism());
+        long span = range.maxId() - range.minId() + 1;
+        long partitionSize = Math.max(1, (span + parallelism - 1) / parallelism);
+
+        List<Future<Result>> partitions = new ArrayList<>();
+        for (long lower = range.minId(); lower <= range.maxId(); lower += partitionSize) {
+            long afterId = lower - 1;
+            long upToId = Math.min(range.maxId(), lower + partitionSize - 1);
+            partitions.add(executor.submit(() -> runRange(afterId, upToId, pass)));
+        }
+
+        Result total = Result.EMPTY;
+        int failedPartitions = 0;
+        for (Future<Result> partition : partitions) {
+            try {
+                total = total.plus(partition.get());
+            } catch (ExecutionException e) {
+                failedPartitions++;
+                log.error("Credit tick partition failed: {}", e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Credit tick interrupted", e);
+            }
+        }
+
+        if (failedPartitions > 0) {
+            log.warn("Credit tick {} finished with {} failed partitions; they will be resumed on the next tick",
+                    pass.tick(), failedPartitions);
+        }
+        return total;
+    }
+
+    private Result runRange(long afterId, long upToId, Pass pass) {
+        long cursor = afterId;
+        boolean rangeDone = afterId >= upToId;
+        Result total = Result.EMPTY;
+
+        while (true) {
+            long from = cursor;
+            boolean scanRange = !rangeDone;
+            Chunk chunk = transactionTemplate.execute(status -> processChunk(from, upToId, scanRange, pass));
+            total = total.plus(chunk.result());
+            cursor = Math.max(cursor, chunk.lastRangeId());
+            // Неразрешённый конфликт: диапазон не закончен, пока кредит не будет перечитан
+            rangeDone = rangeDone || (chunk.rangeRows() < pass.chunkSize() && !chunk.unresolved());
+            if (rangeDone && chunk.polled() == 0) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private Chunk processChunk(long afterId, long upToId, boolean scanRange, Pass pass) {
+        List<Long> dueIds = List.of();
+        if (pass.useIndex()) {
+            dueIds = dueDateIndex.pollDue(pass.now(), pass.chunkSize(), pass.shard()::owns).stream()
+                    .map(DueDateIndex.Entry::creditId)
+                    .toList();
+            if (dueIds.isEmpty() && !scanRange) {
+                return Chunk.EMPTY;
+            }
+        }
+        int limit = scanRange ? pass.chunkSize() : 0;
+        ClusterCoordinator.Shard shard = pass.shard();
+        List<CreditTickRepository.Candidate> candidates = pass.useIndex()
+                ? tickRepository.findDueAndPendingPenalty(dueIds, afterId, upToId, shard.index(), shard.count(),
+                        pass.now(), pass.tick(), limit)
+                : tickRepository.findInRange(afterId, upToId, shard.index(), shard.count(),
+                        pass.now(), pass.tick(), limit);
+
+        // В режиме индекса диапазон ID задают только OVERDUE кандидаты
+        long lastRangeId = afterId;
+        int rangeRows = 0;
+        Set<Long> rangeIds = new HashSet<>();
+        for (CreditTickRepository.Candidate candidate : candidates) {
+            if (!pass.useIndex() || candidate.status() == CreditStatus.OVERDUE) {
+                lastRangeId = Math.max(lastRangeId, candidate.id());
+                rangeRows++;
+                rangeIds.add(candidate.id());
+            }
+        }
+
+        int overdue = 0;
+        int penalties = 0;
+        int conflicts = 0;
+        Set<Long> changed = new HashSet<>();
+        List<CreditTickRepository.Candidate> pending = candidates;
+        List<Long> conflicted = List.of();
+        for (int attempt = 0; !pending.isEmpty(); attempt++) {
+            List<CreditTickRepository.Update> updates = new ArrayList<>();
+            List<Stages> stages = new ArrayList<>();
+            for (CreditTickRepository.Candidate candidate : pending) {
+                Stages applied = applyStages(candidate, pass, updates);
+                if (applied != null) {
+                    stages.add(applied);
+                }
+            }
+
+            int[] counts = tickRepository.update(updates, pass.now());
+            conflicted = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                CreditTickRepository.Update update = updates.get(i);
+                Stages applied = stages.get(i);
+                if (counts[i] == 0) {
+                    conflicted.add(update.id());
+                    continue;
+                }
+                changed.add(update.id());
+                overdue += applied.overdue() ? 1 : 0;
+                penalties += applied.penalty() ? 1 : 0;
+            }
+            conflicts += conflicted.size();
+            if (conflicted.isEmpty() || attempt == MAX_CONFLICT_RETRIES) {
+                break;
+            }
+            // Перечитывается свежая версия; этапы заново проверяют условия по актуальному состоянию
+            pending = tickRepository.findByIds(conflicted);
+        }
+        retrackUnchanged(dueIds, changed);
+
+        // Кредиты диапазона с неразрешённым конфликтом прочитает следующая порция
+        boolean unresolved = false;
+        for (Long creditId : conflicted) {
+            if (!changed.contains(creditId) && rangeIds.contains(creditId)) {
+                lastRangeId = Math.min(lastRangeId, creditId - 1);
+                unresolved = true;
+            }
+        }
+
+        log.debug("Credit tick chunk ({}, {}]: {} candidates, {} overdue, {} penalties, {} conflicts",
+                afterId, lastRangeId, candidates.size(), overdue, penalties, conflicts);
+        return new Chunk(new Result(candidates.size(), changed.size(), overdue, penalties, conflicts),
+                lastRangeId, rangeRows, dueIds.size(), unresolved);
+    }
+
+    // Этапы выполняются по порядку и видят результат предыдущих; null - кредит не изменился
+    private Stages applyStages(CreditTickRepository.Candidate candidate, Pass pass,
+                               List<CreditTickRepository.Update> updates) {
+        CreditStatus status = candidate.status();
+        int overdueDays = candidate.overdueDays();
+        BigDecimal accumulatedPenalty = candidate.accumulatedPenalty();
+        LocalDateTime penaltyAccruedAt = candidate.penaltyAccruedAt();
+
+        // 1. Просрочка платежа
+        boolean overdue = status == CreditStatus.ACTIVE && isDue(candidate.nextPaymentDate(), pass.now());
+        if (overdue) {
+            status = CreditStatus.OVERDUE;
+            overdueDays = 1;
+        }
+
+        // 2. Штраф за просрочку
+        boolean penalty = status == CreditStatus.OVERDUE
+                && (penaltyAccruedAt == null || penaltyAccruedAt.isBefore(pass.tick()));
+        if (penalty) {
+            accumulatedPenalty = accumulatedPenalty.add(candidate.monthlyPayment()
+                    .multiply(pass.penaltyRate())
+                    .setScale(2, RoundingMode.HALF_UP));
+            overdueDays++;
+            penaltyAccruedAt = pass.tick();
+        }
+
+        if (!overdue && !penalty) {
+            return null;
+        }
+        updates.add(new CreditTickRepository.Update(candidate.id(), candidate.version(), status, overdueDays,
+                accumulatedPenalty, penaltyAccruedAt));
+        return new Stages(overdue, penalty);
+    }
+
+    // Кредиты, извлечённые из индекса, но не изменённые (дата сдвинута погашением, кредит закрыт,
+    // конфликт версии), возвращаются в индекс с актуальной датой из БД
+    private void retrackUnchanged(List<Long> dueIds, Set<Long> changed) {
+        List<Long> unchanged = dueIds.stream().filter(id -> !changed.contains(id)).toList();
+        if (unchanged.isEmpty()) {
+            return;
+        }
+        for (CreditRepository.DueDate row : creditRepository.findActiveDueDatesByIds(unchanged)) {
+            dueDateIndex.onCreditDue(row.getId(), row.getNextPaymentDate());
+        }
+    }
+
+    private static boolean isDue(LocalDateTime nextPaymentDate, LocalDateTime now) {
+        return nextPaymentDate != null && nextPaymentDate.isBefore(now);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // scanned - прочитано кандидатов, updated - записано кредитов, далее - число кредитов, изменённых
+    // каждым этапом, и конфликтов версии (включая разрешённые повторным чтением)
+    public record Result(int scanned, int updated, int overdue, int penalties, int conflicts) {
+
+        static final Result EMPTY = new Result(0, 0, 0, 0, 0);
+
+        Result plus(Result other) {
+            return new Result(scanned + other.scanned, updated + other.updated, overdue + other.overdue,
+                    penalties + other.penalties, conflicts + other.conflicts);
+        }
+    }
+
+    private record Pass(BigDecimal penaltyRate, LocalDateTime now, LocalDateTime tick,
+                        ClusterCoordinator.Shard shard, boolean useIndex, int chunkSize) {
+    }
+
+    private record Stages(boolean overdue, boolean penalty) {
+    }
+
+    private record Chunk(Result result, long lastRangeId, int rangeRows, int polled, boolean unresolved) {
+
+        static final Chunk EMPTY = new Chunk(Result.EMPTY, 0, 0, 0, false);
+    }
+}
@@ -0,0 +1,301 @@
+package com.credit.service;
+
+import com.credit.entity.Credit;
+import com.credit.entity.CreditStatus;
+import com.credit.entity.MoneyOperationStatus;
+import com.credit.repository.CreditRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
+
+/**
+ * Индекс дат следующего платежа ACTIVE кредитов с подтверждённым зачислением в памяти (min-heap по nextPaymentDate).
+ * Планировщик забирает из индекса только наступившие даты и обновляет кредиты по ID,
+ * не сканируя остальные. Источник истины - БД: кредиты перечитываются по ID, запись проверяет версию,
+ * а периодическая сверка добавляет кредиты, изменённые мимо индекса. Кредиты, изменённые другими экземплярами,
+ * догружаются чаще - по updated_at.
+ * Устаревшие записи кучи не удаляются сразу, а пропускаются при извлечении.
+ */
+@Component
+@Slf4j
+public class DueDateIndex {
+
+    // Запас на расхождение часов экземпляров, записывающих updated_at
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final CreditRepository creditRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>(Comparator.comparing(Entry::due));
+    private final Map<Long, Tracked> tracked = new HashMap<>();
+    private long sequence;
+    private volatile boolean ready;
+    private volatile LocalDateTime syncedFrom;
+
+    public DueDateIndex(CreditRepository creditRepository, PlatformTransactionManager transactionManager) {
+        this.creditRepository = creditRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Индекс загружен из БД; до этого планировщик обновляет кредиты полным UPDATE
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Отражает состояние кредита в индексе после коммита текущей транзакции;
+    // до подтверждения зачисления кредит не отслеживается
+    public void onCreditChanged(Credit credit) {
+        Long creditId = credit.getId();
+        LocalDateTime due = credit.getStatus() == CreditStatus.ACTIVE
+                && credit.getDisbursementStatus() == MoneyOperationStatus.CONFIRMED
+                ? credit.getNextPaymentDate() : null;
+        afterCommit(() -> {
+            if (due != null) {
+                track(creditId, due);
+            } else {
+                untrack(creditId);
+            }
+        });
+    }
+
+    // Новая дата платежа, записанная планировщиком в текущей транзакции
+    public void onCreditDue(Long creditId, LocalDateTime due) {
+        afterCommit(() -> track(creditId, due));
+    }
+
+    public void track(Long creditId, LocalDateTime due) {
+        lock.lock();
+        try {
+            put(creditId, due);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void untrack(Long creditId) {
+        lock.lock();
+        try {
+            tracked.remove(creditId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Извлекает до limit кредитов с датой платежа раньше now; при откате транзакции они возвращаются в индекс
+    public List<Entry> pollDue(LocalDateTime now, int limit) {
+        return pollDue(now, limit, creditId -> true);
+    }
+
+    // То же только для кредитов своего шарда; записи чужих шардов возвращаются в кучу после завершения
+    // транзакции, чтобы повторные вызовы в том же обходе их не перебирали
+    public List<Entry> pollDue(LocalDateTime now, int limit, LongPredicate owns) {
+        List<Entry> due = new ArrayList<>();
+        List<Entry> skipped = new ArrayList<>();
+        lock.lock();
+        try {
+            while (due.size() < limit && !heap.isEmpty() && heap.peek().due().isBefore(now)) {
+                Entry entry = heap.poll();
+                Tracked current = tracked.get(entry.creditId());
+                if (current == null || !current.due().equals(entry.due())) {
+                    continue;
+                }
+                if (owns.test(entry.creditId())) {
+                    tracked.remove(entry.creditId());
+                    due.add(entry);
+                } else {
+                    skipped.add(entry);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (due.isEmpty() && skipped.isEmpty()) {
+            return due;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            restoreSkipped(skipped);
+            return due;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                restoreSkipped(skipped);
+                if (status != STATUS_COMMITTED) {
+                    due.forEach(entry -> track(entry.creditId(), entry.due()));
+                }
+            }
+        });
+        return due;
+    }
+
+    private void restoreSkipped(List<Entry> skipped) {
+        if (skipped.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            for (Entry entry : skipped) {
+                Tracked current = tracked.get(entry.creditId());
+                if (current != null && current.due().equals(entry.due())) {
+                    heap.add(entry);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return tracked.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reconcile();
+        log.info("Due date index loaded with {} active credits", size());
+    }
+
+    // Сверка с БД - выполняется раз в 5 минут
+    @Scheduled(fixedDelayString = "${credit.due-index.reconcile-interval:300000}",
+            initialDelayString = "${credit.due-index.reconcile-interval:300000}")
+    public void reconcile() {
+        long startedAt = currentSequence();
+        LocalDateTime readAt = LocalDateTime.now();
+
+        Map<Long, LocalDateTime> stored = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<CreditRepository.DueDate> rows = creditRepository.streamActiveDueDates()) {
+                rows.forEach(row -> stored.put(row.getId(), row.getNextPaymentDate()));
+            }
+        });
+
+        int added;
+        int removed = 0;
+        lock.lock();
+        try {
+            added = merge(stored, startedAt);
+            Iterator<Map.Entry<Long, Tracked>> iterator = tracked.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, Tracked> entry = iterator.next();
+                if (entry.getValue().sequence() <= startedAt && !stored.containsKey(entry.getKey())) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+            if (heap.size() > 2 * tracked.size() + 1024) {
+                heap.clear();
+                tracked.forEach((creditId, current) -> heap.add(new Entry(current.due(), creditId)));
+            }
+            ready = true;
+        } finally {
+            lock.unlock();
+        }
+        syncedFrom = readAt;
+        if (added > 0 || removed > 0) {
+            log.info("Due date index reconciled: {} added or corrected, {} removed", added, removed);
+        }
+    }
+
+    // Догрузка кредитов, изменённых после прошлой сверки, - выполняется каждые 30 секунд
+    @Scheduled(fixedDelayString = "${credit.due-index.sync-interval:30000}",
+            initialDelayString = "${credit.due-index.sync-interval:30000}")
+    public void sync() {
+        LocalDateTime since = syncedFrom;
+        if (!ready || since == null) {
+            return;
+        }
+        long startedAt = currentSequence();
+        LocalDateTime readAt = LocalDateTime.now();
+
+        Map<Long, LocalDateTime> stored = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<CreditRepository.DueDate> rows =
+                         creditRepository.streamActiveDueDatesUpdatedSince(since.minus(SYNC_OVERLAP))) {
+                rows.forEach(row -> stored.put(row.getId(), row.getNextPaymentDate()));
+            }
+        });
+
+        int added;
+        lock.lock();
+        try {
+            added = merge(stored, startedAt);
+        } finally {
+            lock.unlock();
+        }
+        syncedFrom = readAt;
+        if (added > 0) {
+            log.debug("Due date index synced: {} added or corrected", added);
+        }
+    }
+
+    private long currentSequence() {
+        lock.lock();
+        try {
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Записи, изменённые после начала чтения, новее прочитанного и не трогаются
+    private int merge(Map<Long, LocalDateTime> stored, long startedAt) {
+        int added = 0;
+        for (Map.Entry<Long, LocalDateTime> row : stored.entrySet()) {
+            Tracked current = tracked.get(row.getKey());
+            if (current == null || (current.sequence() <= startedAt && !current.due().equals(row.getValue()))) {
+                put(row.getKey(), row.getValue());
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private void put(Long creditId, LocalDateTime due) {
+        tracked.put(creditId, new Tracked(due, ++sequence));
+        heap.add(new Entry(due, creditId));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    public record Entry(LocalDateTime due, Long creditId) {
+    }
+
+    private record Tracked(LocalDateTime due, long sequence) {
+    }
+}
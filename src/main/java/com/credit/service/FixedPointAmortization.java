@@ -0,0 +1,124 @@
+package com.credit.service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Расчёт аннуитета и графика платежей в минорных единицах (копейках) на long.
+ * Ставка хранится как long с масштабом 10 знаков — тем же, что у BigDecimal ставки в CreditCalculator,
+ * все округления HALF_UP, поэтому результаты совпадают с BigDecimal расчётом до копейки.
+ * Цикл по месяцам не создаёт объектов.
+ */
+public final class FixedPointAmortization {
+
+    // Масштаб месячной ставки: 10 знаков после запятой
+    public static final long RATE_SCALE = 10_000_000_000L;
+
+    // Точности 40 знаков с запасом хватает, чтобы ошибка не влияла на округление до копейки
+    private static final MathContext PAYMENT_CONTEXT = new MathContext(40, RoundingMode.HALF_EVEN);
+    private static final BigDecimal HALF = new BigDecimal("0.5");
+    private static final BigDecimal ROUNDING_MARGIN = new BigDecimal("1E-12");
+
+    private FixedPointAmortization() {
+    }
+
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(int monthNumber, long totalPayment, long interestPayment, long principalPayment, long remainingBalance);
+    }
+
+    // Сумма с не более чем двумя знаками после запятой в копейках; Long.MIN_VALUE если не представима
+    public static long toMinorUnits(BigDecimal amount) {
+        try {
+            return amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    // Месячная ставка с масштабом RATE_SCALE (как CreditCalculator.monthlyRate); Long.MIN_VALUE если не представима
+    public static long toRateUnits(BigDecimal monthlyRate) {
+        try {
+            return monthlyRate.setScale(10, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    // Расчёт в long возможен, если произведение остатка долга на ставку не переполняет long
+    public static boolean supports(long amountMinor, long rateUnits, int durationMonths) {
+        return amountMinor >= 0 && rateUnits >= 0 && durationMonths > 0
+                && Math.multiplyHigh(amountMinor, rateUnits) == 0
+                && amountMinor * rateUnits >= 0;
+    }
+
+    // Проценты за месяц: остаток * ставка с округлением HALF_UP до копейки
+    public static long interest(long balanceMinor, long rateUnits) {
+        return divideHalfUp(balanceMinor * rateUnits, RATE_SCALE);
+    }
+
+    public static long monthlyPayment(long amountMinor, long rateUnits, int n) {
+        if (rateUnits == 0) {
+            return divideHalfUp(amountMinor, n);
+        }
+        BigDecimal rate = BigDecimal.valueOf(rateUnits, 10);
+        BigDecimal growth = BigDecimal.ONE.add(rate).pow(n, PAYMENT_CONTEXT);
+        BigDecimal paymentMinor = BigDecimal.valueOf(amountMinor)
+                .multiply(rate.multiply(growth, PAYMENT_CONTEXT), PAYMENT_CONTEXT)
+                .divide(growth.subtract(BigDecimal.ONE, PAYMENT_CONTEXT), PAYMENT_CONTEXT);
+
+        BigDecimal whole = paymentMinor.setScale(0, RoundingMode.FLOOR);
+        BigDecimal fraction = paymentMinor.subtract(whole);
+        if (fraction.subtract(HALF).abs().compareTo(ROUNDING_MARGIN) > 0) {
+            return whole.longValueExact() + (fraction.compareTo(HALF) > 0 ? 1 : 0);
+        }
+
+        // Значение слишком близко к половине копейки - округляем по точному значению
+        BigDecimal onePlusRatePowN = BigDecimal.ONE.add(rate).pow(n);
+        return BigDecimal.valueOf(amountMinor, 2)
+                .multiply(rate.multiply(onePlusRatePowN))
+                .divide(onePlusRatePowN.subtract(BigDecimal.ONE), 2, RoundingMode.HALF_UP)
+                .unscaledValue()
+                .longValueExact();
+    }
+
+    public static void schedule(long amountMinor, long rateUnits, long paymentMinor, int durationMonths,
+                                RowConsumer consumer) {
+        long remainingBalance = amountMinor;
+
+        for (int month = 1; month <= durationMonths; month++) {
+            long interestPayment = interest(remainingBalance, rateUnits);
+            long principalPayment = month == durationMonths
+                    ? remainingBalance
+                    : paymentMinor - interestPayment;
+
+            remainingBalance = Math.max(0, remainingBalance - principalPayment);
+
+            consumer.accept(month, interestPayment + principalPayment, interestPayment, principalPayment, remainingBalance);
+        }
+    }
+
+    public static long totalInterest(long amountMinor, long rateUnits, long paymentMinor, int durationMonths) {
+        long remainingBalance = amountMinor;
+        long total = 0;
+
+        for (int month = 1; month <= durationMonths; month++) {
+            long interestPayment = interest(remainingBalance, rateUnits);
+            long principalPayment = month == durationMonths
+                    ? remainingBalance
+                    : paymentMinor - interestPayment;
+
+            remainingBalance = Math.max(0, remainingBalance - principalPayment);
+            total += interestPayment;
+        }
+        return total;
+    }
+
+    // Деление неотрицательного числа с округлением HALF_UP
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        return remainder >= divisor - remainder ? quotient + 1 : quotient;
+    }
+}
@@ -0,0 +1,250 @@
+package com.credit.service;
+
+import com.credit.config.IdempotencyProperties;
+import com.credit.entity.IdempotencyRecord;
+import com.credit.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Повторное выполнение запросов с заголовком Idempotency-Key.
+ * Результат хранится в таблице idempotency_keys, завершённые ключи дополнительно держатся в LRU кэше.
+ * Параллельные дубли в одном экземпляре ждут первый запрос и получают его ответ; на другом экземпляре
+ * дубль видит незавершённую запись и получает 409. Ожидание идёт без открытой транзакции.
+ * Ответ записывается в той же транзакции, что и результат запроса: запись без ответа означает, что
+ * запрос не зафиксирован. Такая запись старше reservation-timeout (сбой экземпляра) перехватывается повтором;
+ * если исходный запрос всё же дойдёт до фиксации, его транзакция откатится.
+ */
+@Component
+@Slf4j
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository repository;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterCoordinator clusterCoordinator;
+    private final Map<String, Completed> completed;
+    private final Map<String, CompletableFuture<Completed>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              IdempotencyProperties properties,
+                              ObjectMapper objectMapper,
+                              ClusterCoordinator clusterCoordinator,
+                              PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clusterCoordinator = clusterCoordinator;
+        int maxSize = Math.max(1, properties.getCacheSize());
+        this.completed = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Completed> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    // Выполняет action один раз на пару (ownerId, key); без ключа - просто выполняет
+    public <T> T execute(String ownerId, String key, String operation, Object request,
+                         Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new org.springframework.web.server.ResponseStatusException(
+                    org.springframework.http.HttpStatus.BAD_REQUEST, "Idempotency-Key is too long");
+        }
+        String requestHash = requestHash(operation, request);
+        String cacheKey = ownerId + "\n" + key;
+
+        Completed cached = completed.get(cacheKey);
+        if (cached != null && cached.expiresAt().isAfter(LocalDateTime.now())) {
+            return replay(cached, requestHash, responseType);
+        }
+
+        CompletableFuture<Completed> own = new CompletableFuture<>();
+        CompletableFuture<Completed> existing = inFlight.putIfAbsent(cacheKey, own);
+        if (existing != null) {
+            try {
+                return replay(existing.join(), requestHash, responseType);
+            } catch (CompletionException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
+
+        try {
+            Optional<IdempotencyRecord> stored = repository.findByOwnerIdAndIdempotencyKey(ownerId, key);
+            if (stored.isPresent()) {
+                IdempotencyRecord record = stored.get();
+                LocalDateTime now = LocalDateTime.now();
+                if (!record.getExpiresAt().isAfter(now)) {
+                    repository.delete(record);
+                } else if (record.getResponseBody() == null
+                        && record.getCreatedAt().plus(properties.getReservationTimeout()).isBefore(now)) {
+                    takeOver(record, now);
+                } else {
+                    Completed result = fromRecord(record);
+                    completed.put(cacheKey, result);
+                    own.complete(result);
+                    return replay(result, requestHash, responseType);
+                }
+            }
+
+            IdempotencyRecord record = reserve(ownerId, key, requestHash);
+            Executed<T> executed;
+            try {
+                executed = transactionTemplate.execute(status -> {
+                    T response = action.get();
+                    String body = write(response);
+                    // Резервацию перехватил повтор после reservation-timeout - результат не фиксируется
+                    if (repository.complete(record.getId(), body, LocalDateTime.now()) == 0) {
+                        throw inProgress();
+                    }
+                    return new Executed<>(response, body);
+                });
+            } catch (RuntimeException e) {
+                // Запрос не выполнен - ключ освобождается, клиент может повторить
+                repository.deleteById(record.getId());
+                throw e;
+            }
+
+            Completed result = new Completed(requestHash, executed.body(), record.getExpiresAt());
+            completed.put(cacheKey, result);
+            own.complete(result);
+            return executed.response();
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, own);
+        }
+    }
+
+    // Очистка истёкших ключей - выполняется каждые 5 минут
+    @Scheduled(fixedDelayString = "${credit.idempotency.purge-interval:300000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (completed) {
+            completed.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+        }
+        // Таблицу чистит один экземпляр
+        clusterCoordinator.runExclusive("purge_idempotency_keys", () -> purgeTable(now));
+    }
+
+    private void purgeTable(LocalDateTime now) {
+        int batchSize = Math.max(1, properties.getPurgeBatchSize());
+        int total = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> repository.deleteExpiredBatch(now, batchSize));
+            total += deleted;
+        } while (deleted == batchSize);
+
+        if (total > 0) {
+            log.info("Purged {} expired idempotency keys", total);
+        }
+    }
+
+    // Запрос, занявший ключ, не зафиксирован и не завершился за reservation-timeout
+    private void takeOver(IdempotencyRecord record, LocalDateTime now) {
+        Integer deleted = transactionTemplate.execute(status -> repository.deleteStaleReservation(
+                record.getId(), now.minus(properties.getReservationTimeout())));
+        if (deleted == null || deleted == 0) {
+            // Исходный запрос только что завершился или ключ перехватил другой повтор
+            throw inProgress();
+        }
+        log.warn("Idempotency-Key reservation {} of {} started at {} was not completed, taking it over",
+                record.getId(), record.getOwnerId(), record.getCreatedAt());
+    }
+
+    private IdempotencyRecord reserve(String ownerId, String key, String requestHash) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setOwnerId(ownerId);
+        record.setIdempotencyKey(key);
+        record.setRequestHash(requestHash);
+        record.setExpiresAt(LocalDateTime.now().plus(properties.getTtl()));
+        try {
+            return repository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            // Тот же ключ одновременно занят другим экземпляром сервиса
+            throw inProgress();
+        }
+    }
+
+    private Completed fromRecord(IdempotencyRecord record) {
+        if (record.getResponseBody() == null) {
+            throw inProgress();
+        }
+        return new Completed(record.getRequestHash(), record.getResponseBody(), record.getExpiresAt());
+    }
+
+    private static org.springframework.web.server.ResponseStatusException inProgress() {
+        return new org.springframework.web.server.ResponseStatusException(
+                org.springframework.http.HttpStatus.CONFLICT, "Request with this Idempotency-Key is in progress");
+    }
+
+    private <T> T replay(Completed result, String requestHash, Class<T> responseType) {
+        if (!result.requestHash().equals(requestHash)) {
+            throw new org.springframework.web.server.ResponseStatusException(
+                    org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used with a different request");
+        }
+        try {
+            return objectMapper.readValue(result.responseBody(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read stored response", e);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to store response", e);
+        }
+    }
+
+    private String requestHash(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to hash request", e);
+        }
+    }
+
+    private record Completed(String requestHash, String responseBody, LocalDateTime expiresAt) {
+    }
+
+    private record Executed<T>(T response, String body) {
+    }
+}
@@ -0,0 +1,286 @@
+package com.credit.service;
+
+import com.credit.client.CoreServiceClient;
+import com.credit.config.CoreServiceProperties;
+import com.credit.config.OutboxProperties;
+import com.credit.dto.MoneyOperationDto;
+import com.credit.entity.MoneyOperation;
+import com.credit.entity.MoneyOperationType;
+import com.credit.repository.MoneyOperationRepository;
+import feign.FeignException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Отправка денежных операций из outbox в Core сервис.
+ * Порция операций захватывается короткой транзакцией, вызовы Core выполняются без открытой
+ * транзакции, результат каждой операции записывается отдельной транзакцией.
+ * Операции разных кредитов отправляются параллельно (не более concurrency одновременно,
+ * на виртуальных потоках при spring.threads.virtual.enabled), операции одного кредита -
+ * последовательно, чтобы не конкурировать за версию кредита.
+ * Lease порции не короче ceil(batch / concurrency) таймаутов вызова Core; группа, которая
+ * не успеет уложиться в оставшийся lease, продлевает его перед началом обработки.
+ * Повторные попытки идут с тем же Idempotency-Key.
+ * Принятие операции Core фиксируется до перехода состояния кредита: если переход не удался
+ * из-за конфликта версий, он повторяется без повторного вызова Core.
+ */
+@Component
+@Slf4j
+public class MoneyOperationDispatcher {
+
+    private final MoneyOperationRepository moneyOperationRepository;
+    private final CoreServiceClient coreServiceClient;
+    private final CreditService creditService;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    // Таймауты Feign по умолчанию (connectTimeout + readTimeout), если для метода Core они не заданы
+    private static final Duration DEFAULT_CALL_TIMEOUT = Duration.ofSeconds(10);
+
+    private final CreditMetrics creditMetrics;
+    private final AsyncTaskExecutor executor;
+    // Верхняя граница длительности одного вызова Core
+    private final Duration callTimeout;
+    private final Duration lease;
+
+    public MoneyOperationDispatcher(MoneyOperationRepository moneyOperationRepository,
+                                    CoreServiceClient coreServiceClient,
+                                    CreditService creditService,
+                                    OutboxProperties properties,
+                                    CoreServiceProperties coreServiceProperties,
+                                    PlatformTransactionManager transactionManager,
+                                    CreditMetrics creditMetrics,
+                                    Environment environment) {
+        this.moneyOperationRepository = moneyOperationRepository;
+        this.coreServiceClient = coreServiceClient;
+        this.creditService = creditService;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.creditMetrics = creditMetrics;
+        int concurrency = Math.max(1, properties.getConcurrency());
+        // Как и Spring Boot: spring.threads.virtual.enabled действует только на Java 21+
+        boolean virtualThreads = Threading.VIRTUAL.isActive(environment);
+        this.executor = createExecutor(concurrency, virtualThreads);
+        this.callTimeout = maxCallTimeout(coreServiceProperties, "apply-credit", "pay-credit");
+        // Группы ждут свободного слота, поэтому последние начинаются через ceil(batch / concurrency) вызовов
+        int rounds = (Math.max(1, properties.getBatchSize()) + concurrency - 1) / concurrency;
+        Duration derived = callTimeout.multipliedBy(rounds);
+        this.lease = derived.compareTo(properties.getLease()) > 0 ? derived : properties.getLease();
+        log.info("Money operation dispatcher: {} concurrent calls on {} threads, lease {}",
+                concurrency, virtualThreads ? "virtual" : "platform", lease);
+    }
+
+    private static AsyncTaskExecutor createExecutor(int concurrency, boolean virtualThreads) {
+        if (virtualThreads) {
+            // Поток на группу, число одновременных вызовов Core ограничено concurrency
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("outbox-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(concurrency);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setThreadNamePrefix("outbox-");
+        executor.initialize();
+        return executor;
+    }
+
+    private static Duration maxCallTimeout(CoreServiceProperties coreServiceProperties, String... methods) {
+        Duration max = Duration.ZERO;
+        for (String method : methods) {
+            CoreServiceProperties.Timeouts timeouts = coreServiceProperties.getTimeouts().get(method);
+            Duration timeout = timeouts == null || timeouts.getConnect() == null || timeouts.getRead() == null
+                    ? DEFAULT_CALL_TIMEOUT
+                    : timeouts.getConnect().plus(timeouts.getRead());
+            if (timeout.compareTo(max) > 0) {
+                max = timeout;
+            }
+        }
+        return max;
+    }
+
+    // Разбор outbox - выполняется каждую секунду после завершения предыдущего прохода
+    @Scheduled(fixedDelayString = "${credit.outbox.poll-interval:1000}")
+    public void dispatch() {
+        List<MoneyOperation> operations = claimBatch();
+        if (operations.isEmpty()) {
+            return;
+        }
+        CreditMetrics.JobRun run = creditMetrics.startJob("dispatch_money_operations");
+        log.info("Dispatching {} money operations to Core Service", operations.size());
+        Map<Long, List<MoneyOperation>> byCredit = new LinkedHashMap<>();
+        for (MoneyOperation operation : operations) {
+            byCredit.computeIfAbsent(operation.getCreditId(), id -> new ArrayList<>()).add(operation);
+        }
+
+        List<Future<Integer>> groups = new ArrayList<>(byCredit.size());
+        for (List<MoneyOperation> group : byCredit.values()) {
+            groups.add(executor.submit(() -> dispatchGroup(group)));
+        }
+
+        int confirmed = 0;
+        for (Future<Integer> group : groups) {
+            try {
+                confirmed += group.get();
+            } catch (ExecutionException e) {
+                // Незавершённые операции группы вернутся после истечения lease
+                log.error("Money operation dispatch failed: {}", e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Money operation dispatch interrupted", e);
+            }
+        }
+        run.finish(operations.size(), confirmed);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        } else if (executor instanceof SimpleAsyncTaskExecutor simple) {
+            simple.close();
+        }
+    }
+
+    private int dispatchGroup(List<MoneyOperation> group) {
+        renewLeaseIfNeeded(group);
+        int confirmed = 0;
+        for (MoneyOperation operation : group) {
+            if (dispatch(operation)) {
+                confirmed++;
+            }
+        }
+        return confirmed;
+    }
+
+    // Группа одного кредита обрабатывается последовательно и может не успеть до истечения lease порции
+    private void renewLeaseIfNeeded(List<MoneyOperation> group) {
+        LocalDateTime needed = LocalDateTime.now().plus(callTimeout.multipliedBy(group.size()));
+        LocalDateTime lockedUntil = group.get(0).getLockedUntil();
+        if (lockedUntil != null && !needed.isAfter(lockedUntil)) {
+            return;
+        }
+        List<Long> ids = group.stream().map(MoneyOperation::getId).toList();
+        transactionTemplate.executeWithoutResult(status -> moneyOperationRepository.renewLease(ids, needed));
+        log.debug("Lease of {} operations for credit {} extended until {}", ids.size(), group.get(0).getCreditId(), needed);
+    }
+
+    private List<MoneyOperation> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = moneyOperationRepository.claimDueIds(
+                    now, now.plus(lease), properties.getBatchSize());
+            if (ids.isEmpty()) {
+                return List.<MoneyOperation>of();
+            }
+            return moneyOperationRepository.findAllById(ids).stream()
+                    .sorted(Comparator.comparing(MoneyOperation::getId))
+                    .toList();
+        });
+    }
+
+    // true - операция подтверждена Core сервисом
+    private boolean dispatch(MoneyOperation operation) {
+        if (operation.getCoreAcceptedAt() == null && !callCore(operation)) {
+            return false;
+        }
+        return withStateRetry(operation, () -> creditService.confirmMoneyOperation(operation.getId()));
+    }
+
+    // true - Core принял операцию
+    private boolean callCore(MoneyOperation operation) {
+        MoneyOperationDto body = new MoneyOperationDto(operation.getAmount());
+        try {
+            if (operation.getOperationType() == MoneyOperationType.APPLY_CREDIT) {
+                coreServiceClient.applyCredit(operation.getBankAccountId(), operation.getIdempotencyKey(), body);
+            } else {
+                coreServiceClient.payCredit(operation.getBankAccountId(), operation.getIdempotencyKey(), body);
+            }
+        } catch (FeignException e) {
+            // 4xx - Core отклонил операцию, повтор не поможет
+            boolean rejected = e.status() >= 400 && e.status() < 500;
+            handleFailure(operation, e.getMessage(), !rejected);
+            return false;
+        } catch (Exception e) {
+            handleFailure(operation, e.getMessage(), true);
+            return false;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                moneyOperationRepository.findById(operation.getId())
+                        .ifPresent(stored -> stored.setCoreAcceptedAt(LocalDateTime.now())));
+        return true;
+    }
+
+    // Переход состояния в собственной транзакции; при конфликте версий кредита перечитывается и повторяется.
+    // Если повторы исчерпаны, операция вернётся после истечения lease и будет подтверждена без вызова Core
+    private boolean withStateRetry(MoneyOperation operation, Runnable transition) {
+        int retries = Math.max(1, properties.getStateRetries());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transition.run();
+                return true;
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (attempt >= retries) {
+                    log.error("{} operation {} for credit {}: state transition lost {} version races, " +
+                                    "will be retried after lease expiry",
+                            operation.getOperationType(), operation.getId(), operation.getCreditId(), attempt);
+                    return false;
+                }
+                log.debug("{} operation {} for credit {}: version conflict, retrying state transition (attempt {})",
+                        operation.getOperationType(), operation.getId(), operation.getCreditId(), attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long baseMillis = properties.getStateRetryBackoff().toMillis() * attempt;
+        try {
+            Thread.sleep(baseMillis + ThreadLocalRandom.current().nextLong(baseMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying state transition", e);
+        }
+    }
+
+    private void handleFailure(MoneyOperation operation, String error, boolean retryable) {
+        int attempts = operation.getAttempts() + 1;
+        if (!retryable || attempts >= properties.getMaxAttempts()) {
+            log.error("{} operation {} for credit {} failed after {} attempts: {}",
+                    operation.getOperationType(), operation.getId(), operation.getCreditId(), attempts, error);
+            withStateRetry(operation, () -> creditService.failMoneyOperation(operation.getId(), error));
+            return;
+        }
+
+        log.warn("{} operation {} for credit {} failed (attempt {}), will retry: {}",
+                operation.getOperationType(), operation.getId(), operation.getCreditId(), attempts, error);
+        transactionTemplate.executeWithoutResult(status ->
+                moneyOperationRepository.findById(operation.getId()).ifPresent(stored -> {
+                    stored.setAttempts(attempts);
+                    stored.setLastError(error);
+                    stored.setLockedUntil(null);
+                    stored.setNextAttemptAt(LocalDateTime.now().plus(properties.getRetryBackoff().multipliedBy(attempts)));
+                }));
+    }
+}
@@ -0,0 +1,139 @@
+package com.credit.service;
+
+import com.credit.config.PaymentScheduleProperties;
+import com.credit.dto.PaymentScheduleResponse;
+import com.credit.entity.Credit;
+import com.credit.entity.PaymentSchedule;
+import com.credit.repository.PaymentScheduleBatchWriter;
+import com.credit.repository.PaymentScheduleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * График платежей по кредиту.
+ * В режиме STORED строки графика пишутся в payment_schedule при выдаче кредита.
+ * В режиме COMPUTED график рассчитывается из параметров кредита при запросе и держится
+ * в LRU кэше по ID кредита. Строки, сохранённые для кредитов, выданных в режиме STORED,
+ * имеют приоритет над рассчитанными; в режиме COMPUTED строки не пишутся, поэтому кэш не устаревает.
+ */
+@Service
+@Slf4j
+public class PaymentScheduleService {
+
+    private final PaymentScheduleRepository scheduleRepository;
+    private final PaymentScheduleBatchWriter scheduleBatchWriter;
+    private final PaymentScheduleProperties properties;
+    private final Map<Long, List<PaymentScheduleResponse>> cache;
+
+    public PaymentScheduleService(PaymentScheduleRepository scheduleRepository,
+                                  PaymentScheduleBatchWriter scheduleBatchWriter,
+                                  PaymentScheduleProperties properties) {
+        this.scheduleRepository = scheduleRepository;
+        this.scheduleBatchWriter = scheduleBatchWriter;
+        this.properties = properties;
+        int maxSize = Math.max(1, properties.getCacheSize());
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<PaymentScheduleResponse>> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    // Вызывается при выдаче кредита; в режиме COMPUTED ничего не пишет
+    public void onCreditIssued(Credit credit, BigDecimal monthlyRate, BigDecimal monthlyPayment) {
+        if (properties.getMode() == PaymentScheduleProperties.Mode.COMPUTED) {
+            return;
+        }
+        scheduleBatchWriter.insertAll(buildSchedule(credit, monthlyRate, monthlyPayment));
+    }
+
+    public List<PaymentScheduleResponse> getSchedule(Credit credit) {
+        if (properties.getMode() == PaymentScheduleProperties.Mode.STORED) {
+            return scheduleRepository.findByCreditIdOrderByMonthNumber(credit.getId()).stream()
+                    .map(this::mapScheduleToResponse)
+                    .collect(Collectors.toList());
+        }
+        List<PaymentScheduleResponse> cached = cache.get(credit.getId());
+        if (cached != null) {
+            return cached;
+        }
+        List<PaymentScheduleResponse> computed = computeSchedule(credit);
+        cache.put(credit.getId(), computed);
+        return computed;
+    }
+
+    public BigDecimal getTotalInterest(Credit credit) {
+        return getSchedule(credit).stream()
+                .map(PaymentScheduleResponse::getInterestPayment)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private List<PaymentScheduleResponse> computeSchedule(Credit credit) {
+        BigDecimal monthlyRate = CreditCalculator.monthlyRate(credit.getTariff().getInterestRate());
+        Map<Integer, PaymentSchedule> storedRows = scheduleRepository.findByCreditIdOrderByMonthNumber(credit.getId())
+                .stream()
+                .collect(Collectors.toMap(PaymentSchedule::getMonthNumber, Function.identity()));
+
+        List<PaymentScheduleResponse> result = new ArrayList<>(credit.getDurationMonths());
+        for (PaymentSchedule row : buildSchedule(credit, monthlyRate, credit.getMonthlyPayment())) {
+            PaymentSchedule stored = storedRows.get(row.getMonthNumber());
+            result.add(mapScheduleToResponse(stored != null ? stored : row));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private List<PaymentSchedule> buildSchedule(Credit credit, BigDecimal monthlyRate, BigDecimal monthlyPayment) {
+        LocalDateTime paymentDate = credit.getIssueDate().plusMinutes(1);
+        
+        log.info("Generating payment schedule for credit {}. Amount: {}, Rate: {}, Payment: {}", 
+                credit.getId(), credit.getAmount(), monthlyRate, monthlyPayment);
+
+        List<CreditCalculator.ScheduleRow> calculated = CreditCalculator.schedule(
+                credit.getAmount(), monthlyRate, monthlyPayment, credit.getDurationMonths());
+        List<PaymentSchedule> rows = new ArrayList<>(calculated.size());
+        for (CreditCalculator.ScheduleRow row : calculated) {
+            PaymentSchedule schedule = new PaymentSchedule();
+            schedule.setCredit(credit);
+            schedule.setMonthNumber(row.monthNumber());
+            schedule.setPaymentDate(paymentDate);
+            schedule.setTotalPayment(row.totalPayment());
+            schedule.setInterestPayment(row.interestPayment());
+            schedule.setPrincipalPayment(row.principalPayment());
+            schedule.setRemainingBalance(row.remainingBalance());
+            schedule.setPaid(false);
+
+            rows.add(schedule);
+
+            paymentDate = paymentDate.plusMinutes(1);
+        }
+
+        log.info("Payment schedule generated for credit {}. Final balance: {}", credit.getId(),
+                calculated.isEmpty() ? credit.getAmount() : calculated.get(calculated.size() - 1).remainingBalance());
+        return rows;
+    }
+
+    private PaymentScheduleResponse mapScheduleToResponse(PaymentSchedule schedule) {
+        return new PaymentScheduleResponse(
+                schedule.getId(),
+                schedule.getCredit().getId(),
+                schedule.getMonthNumber(),
+                schedule.getPaymentDate(),
+                schedule.getTotalPayment(),
+                schedule.getInterestPayment(),
+                schedule.getPrincipalPayment(),
+                schedule.getRemainingBalance(),
+                schedule.getPaid()
+        );
+    }
+}
@@ -0,0 +1,198 @@
+package com.credit.service;
+
+import com.credit.config.AnalyticsProperties;
+import com.credit.dto.CreditTariffResponse;
+import com.credit.dto.PortfolioAnalyticsResponse;
+import com.credit.dto.PortfolioGroupResponse;
+import com.credit.entity.CreditStatus;
+import com.credit.entity.PortfolioSnapshot;
+import com.credit.entity.PortfolioSnapshotRun;
+import com.credit.repository.CreditRepository;
+import com.credit.repository.PortfolioSnapshotRepository;
+import com.credit.repository.PortfolioSnapshotRunRepository;
+import com.credit.util.EtagUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Аналитика портфеля для сотрудников: агрегаты по тарифу и статусу кредита.
+ * Снимок считается только планировщиком одним GROUP BY запросом в read-only транзакции, сохраняется
+ * в portfolio_snapshots с заголовком в portfolio_snapshot_runs и до следующего пересчёта отдаётся из памяти.
+ * Если свежий снимок уже посчитан другим экземпляром, он читается из таблицы вместо повторной агрегации;
+ * заголовок есть и у пустого снимка, поэтому пустой портфель тоже не пересчитывается каждым экземпляром.
+ */
+@Service
+@Slf4j
+public class PortfolioAnalyticsService {
+
+    private final CreditRepository creditRepository;
+    private final PortfolioSnapshotRepository snapshotRepository;
+    private final PortfolioSnapshotRunRepository snapshotRunRepository;
+    private final TariffCache tariffCache;
+    private final AnalyticsProperties properties;
+    private final ClusterCoordinator clusterCoordinator;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Tagged current;
+
+    public PortfolioAnalyticsService(CreditRepository creditRepository,
+                                     PortfolioSnapshotRepository snapshotRepository,
+                                     PortfolioSnapshotRunRepository snapshotRunRepository,
+                                     TariffCache tariffCache,
+                                     AnalyticsProperties properties,
+                                     ClusterCoordinator clusterCoordinator,
+                                     PlatformTransactionManager transactionManager) {
+        this.creditRepository = creditRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.snapshotRunRepository = snapshotRunRepository;
+        this.tariffCache = tariffCache;
+        this.properties = properties;
+        this.clusterCoordinator = clusterCoordinator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Последний снимок портфеля; пусто, пока ни один экземпляр его не посчитал.
+     * Запрос не агрегирует кредиты: до первого снимка в памяти он только читает уже сохранённый,
+     * и то одним потоком - остальные запросы в это время получают пустой ответ.
+     */
+    public Optional<Tagged> getPortfolio() {
+        if (current == null && refreshLock.tryLock()) {
+            try {
+                if (current == null) {
+                    loadLatest();
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+        return Optional.ofNullable(current);
+    }
+
+    // Пересчёт снимка - выполняется раз в 5 минут; агрегирует один экземпляр, остальные читают его снимок
+    @Scheduled(fixedDelayString = "${credit.analytics.refresh-interval:300000}")
+    public void refresh() {
+        if (!refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            if (!clusterCoordinator.runExclusive("portfolio_snapshot", this::refreshLocked)) {
+                loadLatest();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void refreshLocked() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime latest = snapshotRunRepository.findLatestSnapshotAt();
+        if (latest != null && latest.plus(properties.getRefreshInterval()).isAfter(now)) {
+            load(latest);
+            return;
+        }
+        List<PortfolioSnapshot> rows = takeSnapshot(now);
+        current = tagged(toResponse(now, rows));
+        log.info("Portfolio snapshot taken at {} with {} groups", now, rows.size());
+    }
+
+    // Снимок, посчитанный экземпляром-владельцем блокировки
+    private void loadLatest() {
+        LocalDateTime latest = snapshotRunRepository.findLatestSnapshotAt();
+        if (latest != null) {
+            load(latest);
+        }
+    }
+
+    private void load(LocalDateTime snapshotAt) {
+        if (current == null || current.response().getSnapshotAt().isBefore(snapshotAt)) {
+            current = tagged(toResponse(snapshotAt, snapshotRepository.findBySnapshotAt(snapshotAt)));
+        }
+    }
+
+    private List<PortfolioSnapshot> takeSnapshot(LocalDateTime now) {
+        // Агрегация - только чтение; запись снимка и очистка старых - отдельной короткой транзакцией
+        List<PortfolioSnapshot> rows = readOnlyTransaction.execute(status ->
+                creditRepository.aggregatePortfolio().stream()
+                        .map(aggregate -> new PortfolioSnapshot(null, now,
+                                aggregate.getTariffId(),
+                                aggregate.getStatus(),
+                                aggregate.getCreditCount(),
+                                aggregate.getIssuedAmount(),
+                                aggregate.getOutstandingPrincipal(),
+                                aggregate.getAccumulatedPenalty()))
+                        .toList());
+        LocalDateTime before = now.minus(properties.getRetention());
+        transactionTemplate.executeWithoutResult(status -> {
+            snapshotRunRepository.save(new PortfolioSnapshotRun(now, rows.size()));
+            snapshotRepository.saveAll(rows);
+            snapshotRepository.deleteOlderThan(before);
+            snapshotRunRepository.deleteOlderThan(before);
+        });
+        return rows;
+    }
+
+    // ETag считается один раз при сборке снимка, а не на каждый запрос
+    private static Tagged tagged(PortfolioAnalyticsResponse response) {
+        return new Tagged(response, EtagUtil.etag(response));
+    }
+
+    private PortfolioAnalyticsResponse toResponse(LocalDateTime snapshotAt, List<PortfolioSnapshot> rows) {
+        TariffCache.Snapshot tariffs = tariffCache.getSnapshot();
+        List<PortfolioGroupResponse> groups = rows.stream()
+                .sorted(Comparator.comparing(PortfolioSnapshot::getTariffId)
+                        .thenComparing(PortfolioSnapshot::getStatus))
+                .map(row -> {
+                    CreditTariffResponse tariff = tariffs.byId().get(row.getTariffId());
+                    return new PortfolioGroupResponse(
+                            row.getTariffId(),
+                            tariff != null ? tariff.getName() : null,
+                            row.getStatus(),
+                            row.getCreditCount(),
+                            row.getIssuedAmount(),
+                            row.getOutstandingPrincipal(),
+                            row.getAccumulatedPenalty());
+                })
+                .toList();
+
+        long creditCount = 0;
+        BigDecimal issuedAmount = BigDecimal.ZERO;
+        BigDecimal outstandingPrincipal = BigDecimal.ZERO;
+        BigDecimal accumulatedPenalty = BigDecimal.ZERO;
+        BigDecimal overduePrincipal = BigDecimal.ZERO;
+        for (PortfolioGroupResponse group : groups) {
+            creditCount += group.getCreditCount();
+            issuedAmount = issuedAmount.add(group.getIssuedAmount());
+            outstandingPrincipal = outstandingPrincipal.add(group.getOutstandingPrincipal());
+            accumulatedPenalty = accumulatedPenalty.add(group.getAccumulatedPenalty());
+            if (group.getStatus() == CreditStatus.OVERDUE) {
+                overduePrincipal = overduePrincipal.add(group.getOutstandingPrincipal());
+            }
+        }
+        BigDecimal overdueShare = outstandingPrincipal.signum() == 0
+                ? BigDecimal.ZERO
+                : overduePrincipal.divide(outstandingPrincipal, 4, RoundingMode.HALF_UP);
+
+        return new PortfolioAnalyticsResponse(snapshotAt, creditCount, issuedAmount, outstandingPrincipal,
+                accumulatedPenalty, overdueShare, groups);
+    }
+
+    // Снимок портфеля вместе с его ETag
+    public record Tagged(PortfolioAnalyticsResponse response, String etag) {
+    }
+}
@@ -0,0 +1,144 @@
+package com.credit.service;
+
+import com.credit.dto.CreditTariffResponse;
+import com.credit.entity.CreditTariff;
+import com.credit.repository.CreditTariffRepository;
+import com.credit.util.EtagUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Неизменяемый снимок всех тарифов в памяти (copy-on-write).
+ * Снимок пересобирается после изменения тарифов и периодически, чтобы подхватить изменения
+ * с других экземпляров сервиса. Сущности в снимке отсоединены от контекста и не должны изменяться.
+ * ETag списка и каждого тарифа считаются при сборке снимка, а не на каждый запрос.
+ */
+@Component
+@Slf4j
+public class TariffCache {
+
+    private final CreditTariffRepository creditTariffRepository;
+    private final Duration refreshInterval;
+    // ID тарифов, из-за которых снимок уже запрошен к пересборке; очищается при пересборке
+    private final Set<Long> refreshRequested = ConcurrentHashMap.newKeySet();
+    // Не synchronized: загрузка идёт в БД и не должна закреплять виртуальный поток за носителем
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    public TariffCache(CreditTariffRepository creditTariffRepository,
+                       @Value("${credit.tariff-cache.refresh-interval:60000}") long refreshIntervalMillis) {
+        this.creditTariffRepository = creditTariffRepository;
+        this.refreshInterval = Duration.ofMillis(refreshIntervalMillis);
+    }
+
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            loadLock.lock();
+            try {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    public Optional<CreditTariff> findEntity(Long id) {
+        return Optional.ofNullable(getSnapshot().entities().get(id));
+    }
+
+    // Снимок обновлялся не дольше интервала назад: тариф, которого в нём нет, не существует
+    public boolean isFresh(Snapshot snapshot) {
+        return snapshot.loadedAt().plus(refreshInterval).isAfter(Instant.now());
+    }
+
+    // Пересборка снимка из-за тарифа, которого в нём нет: не больше одной на ID до следующей пересборки
+    public void requestRefresh(Long id) {
+        if (refreshRequested.add(id)) {
+            refreshAfterCommit();
+        }
+    }
+
+    // Обновление снимка - выполняется раз в минуту
+    @Scheduled(fixedDelayString = "${credit.tariff-cache.refresh-interval:60000}")
+    public void refresh() {
+        snapshot = load();
+        refreshRequested.clear();
+    }
+
+    // Пересобирает снимок после коммита текущей транзакции (или сразу, если транзакции нет)
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+        });
+    }
+
+    private Snapshot load() {
+        List<CreditTariff> tariffs = creditTariffRepository.findAll().stream()
+                .sorted(Comparator.comparing(CreditTariff::getId))
+                .toList();
+        Map<Long, CreditTariff> entities = new LinkedHashMap<>();
+        Map<Long, CreditTariffResponse> responses = new LinkedHashMap<>();
+        Map<Long, String> etags = new LinkedHashMap<>();
+        for (CreditTariff tariff : tariffs) {
+            CreditTariffResponse response = toResponse(tariff);
+            entities.put(tariff.getId(), tariff);
+            responses.put(tariff.getId(), response);
+            etags.put(tariff.getId(), EtagUtil.etag(response));
+        }
+        List<CreditTariffResponse> all = List.copyOf(responses.values());
+        log.debug("Tariff cache refreshed with {} tariffs", all.size());
+        return new Snapshot(all, Map.copyOf(responses), Map.copyOf(entities), EtagUtil.etag(all), Map.copyOf(etags),
+                Instant.now());
+    }
+
+    public CreditTariffResponse toResponse(CreditTariff tariff) {
+        return new CreditTariffResponse(
+                tariff.getId(),
+                tariff.getName(),
+                tariff.getInterestRate().multiply(java.math.BigDecimal.valueOf(100)).stripTrailingZeros(),
+                tariff.getDueDate(),
+                tariff.getIsActive(),
+                tariff.getCreatedAt()
+        );
+    }
+
+    public record Snapshot(List<CreditTariffResponse> all,
+                           Map<Long, CreditTariffResponse> byId,
+                           Map<Long, CreditTariff> entities,
+                           String etag,
+                           Map<Long, String> etagById,
+                           Instant loadedAt) {
+    }
+
+    // Тариф вместе с его ETag
+    public record Tagged(CreditTariffResponse response, String etag) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.credit.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// Сильные ETag для условных GET запросов
+public final class EtagUtil {
+
+    // Порядок ключей фиксирован, чтобы одинаковый ответ давал одинаковый ETag на всех экземплярах
+    private static final ObjectMapper ETAG_MAPPER = JsonMapper.builder()
+            .findAndAddModules()
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+
+    private EtagUtil() {
+    }
+
+    // SHA-256 сериализованного ответа
+    public static String etag(Object value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return "\"" + HexFormat.of().formatHex(digest.digest(ETAG_MAPPER.writeValueAsBytes(value))) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize value for ETag", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.credit.util;
+
+import java.time.Instant;
+import java.util.List;
+
+// Проверенные данные из JWT токена: ID пользователя, роли и момент истечения токена
+public record JwtPrincipal(String userId, List<String> roles, Instant expiresAt) {
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+}
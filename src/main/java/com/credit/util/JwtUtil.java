@@ -2,29 +2,50 @@ package com.credit.util;
 
 import com.credit.config.JwtProperties;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.JwtParserBuilder;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ResponseStatusException;
 
-import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Component
-@RequiredArgsConstructor
 public class JwtUtil {
+    // Токены без exp держим в кэше не дольше этого времени
+    private static final long MAX_CACHE_TTL_SECONDS = 300;
+
     private final JwtProperties jwtProperties;
+    private final JwtParser parser;
+    // Проверенные токены по SHA-256 хэшу, запись живёт до истечения токена;
+    // при переполнении вытесняется давно не использованный токен
+    private final Map<String, JwtPrincipal> principalCache;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtProperties.getSigningKey().getBytes(StandardCharsets.UTF_8));
+    public JwtUtil(JwtProperties jwtProperties) {
+        this.jwtProperties = jwtProperties;
+        this.parser = baseParser().build();
+        int maxSize = Math.max(1, jwtProperties.getCacheSize());
+        this.principalCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JwtPrincipal> eldest) {
+                return size() > maxSize;
+            }
+        });
     }
 
     private JwtParserBuilder baseParser() {
         JwtParserBuilder builder = Jwts.parser()
-                .verifyWith(getSigningKey())
+                .verifyWith(Keys.hmacShaKeyFor(jwtProperties.getSigningKey().getBytes(StandardCharsets.UTF_8)))
                 .clockSkewSeconds(60);
         if (jwtProperties.getIssuer() != null && !jwtProperties.getIssuer().isBlank()) {
             builder.requireIssuer(jwtProperties.getIssuer());
@@ -35,49 +56,81 @@ public class JwtUtil {
         return builder;
     }
 
-    public String getUserIdFromToken(String token) {
-        try {
-            Claims claims = baseParser()
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            return claims.getSubject();
-        } catch (Exception e) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid or expired JWT token: " + e.getMessage());
+    public JwtPrincipal getPrincipalFromToken(String token) {
+        String key = hash(token);
+        Instant now = Instant.now();
+        JwtPrincipal cached = principalCache.get(key);
+        if (cached != null) {
+            if (cached.expiresAt().isAfter(now)) {
+                return cached;
+            }
+            principalCache.remove(key, cached);
         }
+
+        JwtPrincipal principal = parse(token, now);
+        if (principal.expiresAt().isAfter(now)) {
+            principalCache.put(key, principal);
+        }
+        return principal;
     }
 
-    public String getUserIdFromAuthHeader(String authHeader) {
+    public JwtPrincipal getPrincipalFromAuthHeader(String authHeader) {
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing or invalid Authorization header");
         }
-        String token = authHeader.substring(7);
-        return getUserIdFromToken(token);
+        return getPrincipalFromToken(authHeader.substring(7));
     }
 
-    @SuppressWarnings("unchecked")
-    public java.util.List<String> getRolesFromToken(String token) {
+    public String getUserIdFromToken(String token) {
+        return getPrincipalFromToken(token).userId();
+    }
+
+    public String getUserIdFromAuthHeader(String authHeader) {
+        return getPrincipalFromAuthHeader(authHeader).userId();
+    }
+
+    public List<String> getRolesFromToken(String token) {
+        return getPrincipalFromToken(token).roles();
+    }
+
+    public List<String> getRolesFromAuthHeader(String authHeader) {
+        return getPrincipalFromAuthHeader(authHeader).roles();
+    }
+
+    private JwtPrincipal parse(String token, Instant now) {
+        Claims claims;
         try {
-            Claims claims = baseParser()
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            Object role = claims.get("role");
-            if (role instanceof java.util.List) {
-                return (java.util.List<String>) role;
-            } else if (role instanceof String) {
-                return java.util.List.of((String) role);
-            }
-            return java.util.List.of();
+            claims = parser.parseSignedClaims(token).getPayload();
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid or expired JWT token: " + e.getMessage());
         }
+
+        List<String> roles;
+        Object role = claims.get("role");
+        if (role instanceof List<?> list) {
+            // Элементы, не являющиеся строками (в том числе null), ролями не считаются
+            roles = list.stream()
+                    .filter(String.class::isInstance)
+                    .map(String.class::cast)
+                    .toList();
+        } else if (role instanceof String) {
+            roles = List.of((String) role);
+        } else {
+            roles = List.of();
+        }
+
+        Instant expiresAt = claims.getExpiration() != null
+                ? claims.getExpiration().toInstant()
+                : now.plusSeconds(MAX_CACHE_TTL_SECONDS);
+        return new JwtPrincipal(claims.getSubject(), roles, expiresAt);
     }
 
-    public java.util.List<String> getRolesFromAuthHeader(String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing or invalid Authorization header");
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
-        return getRolesFromToken(authHeader.substring(7));
     }
 }
@@ -0,0 +1,104 @@
+-- Схема, которую раньше создавал ddl-auto: update.
+-- IF NOT EXISTS: на базах, созданных Hibernate, скрипт только добавляет недостающие столбцы.
+
+CREATE TABLE IF NOT EXISTS credit_tariffs (
+    id            BIGSERIAL     NOT NULL,
+    name          VARCHAR(255)  NOT NULL UNIQUE,
+    interest_rate NUMERIC(5, 2) NOT NULL,
+    due_date      DATE          NOT NULL,
+    is_active     BOOLEAN       NOT NULL,
+    created_at    TIMESTAMP(6)  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS credits (
+    id                  BIGSERIAL      NOT NULL,
+    owner_id            VARCHAR(255)   NOT NULL,
+    tariff_id           BIGINT         NOT NULL REFERENCES credit_tariffs (id),
+    amount              NUMERIC(15, 2) NOT NULL,
+    remaining_amount    NUMERIC(15, 2) NOT NULL,
+    monthly_payment     NUMERIC(15, 2) NOT NULL,
+    duration_months     INTEGER        NOT NULL,
+    remaining_months    INTEGER        NOT NULL,
+    accumulated_penalty NUMERIC(15, 2) NOT NULL,
+    overdue_days        INTEGER        NOT NULL,
+    status              VARCHAR(255)   NOT NULL
+        CHECK (status IN ('ACTIVE', 'PAID_OFF', 'OVERDUE', 'CANCELLED')),
+    disbursement_status VARCHAR(255)
+        CHECK (disbursement_status IN ('PENDING', 'CONFIRMED', 'FAILED')),
+    issue_date          TIMESTAMP(6)   NOT NULL,
+    next_payment_date   TIMESTAMP(6),
+    penalty_accrued_at  TIMESTAMP(6),
+    version             BIGINT         NOT NULL DEFAULT 0,
+    created_at          TIMESTAMP(6)   NOT NULL,
+    updated_at          TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS credit_payments (
+    id           BIGSERIAL      NOT NULL,
+    credit_id    BIGINT         NOT NULL REFERENCES credits (id),
+    amount       NUMERIC(15, 2) NOT NULL,
+    payment_type VARCHAR(255)   NOT NULL
+        CHECK (payment_type IN ('MANUAL_REPAYMENT', 'AUTOMATIC_DAILY', 'EARLY_REPAYMENT', 'PENALTY')),
+    payment_date TIMESTAMP(6)   NOT NULL,
+    status       VARCHAR(255)
+        CHECK (status IN ('PENDING', 'CONFIRMED', 'FAILED')),
+    created_at   TIMESTAMP(6)   NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS payment_schedule (
+    id                BIGSERIAL      NOT NULL,
+    credit_id         BIGINT         NOT NULL REFERENCES credits (id),
+    month_number      INTEGER        NOT NULL,
+    payment_date      TIMESTAMP(6)   NOT NULL,
+    total_payment     NUMERIC(15, 2) NOT NULL,
+    interest_payment  NUMERIC(15, 2) NOT NULL,
+    principal_payment NUMERIC(15, 2) NOT NULL,
+    remaining_balance NUMERIC(15, 2) NOT NULL,
+    paid              BOOLEAN        NOT NULL,
+    created_at        TIMESTAMP(6)   NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS money_operation_outbox (
+    id               BIGSERIAL      NOT NULL,
+    operation_type   VARCHAR(255)   NOT NULL
+        CHECK (operation_type IN ('APPLY_CREDIT', 'PAY_CREDIT')),
+    status           VARCHAR(255)   NOT NULL
+        CHECK (status IN ('PENDING', 'CONFIRMED', 'FAILED')),
+    idempotency_key  VARCHAR(255)   NOT NULL UNIQUE,
+    bank_account_id  VARCHAR(255)   NOT NULL,
+    amount           NUMERIC(15, 2) NOT NULL,
+    credit_id        BIGINT         NOT NULL,
+    payment_id       BIGINT,
+    attempts         INTEGER        NOT NULL,
+    next_attempt_at  TIMESTAMP(6)   NOT NULL,
+    locked_until     TIMESTAMP(6),
+    last_error       VARCHAR(1000),
+    core_accepted_at TIMESTAMP(6),
+    processed_at     TIMESTAMP(6),
+    created_at       TIMESTAMP(6)   NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id              BIGSERIAL    NOT NULL,
+    owner_id        VARCHAR(255) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash    VARCHAR(64)  NOT NULL,
+    response_body   TEXT,
+    expires_at      TIMESTAMP(6) NOT NULL,
+    completed_at    TIMESTAMP(6),
+    created_at      TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE (owner_id, idempotency_key)
+);
+
+-- Столбцы, которые ddl-auto мог не добавить в уже существующие таблицы
+ALTER TABLE credits ADD COLUMN IF NOT EXISTS disbursement_status VARCHAR(255);
+ALTER TABLE credits ADD COLUMN IF NOT EXISTS penalty_accrued_at TIMESTAMP(6);
+ALTER TABLE credits ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE credit_payments ADD COLUMN IF NOT EXISTS status VARCHAR(255);
+ALTER TABLE money_operation_outbox ADD COLUMN IF NOT EXISTS core_accepted_at TIMESTAMP(6);
@@ -0,0 +1,23 @@
+-- Планировщик: переходы ACTIVE -> OVERDUE, сдвиг дат платежей, загрузка индекса дат платежей
+CREATE INDEX IF NOT EXISTS idx_credits_status_next_payment_date ON credits (status, next_payment_date);
+
+-- Начисление штрафов: min/max ID и порции OVERDUE кредитов по диапазону ID
+CREATE INDEX IF NOT EXISTS idx_credits_status_id ON credits (status, id);
+
+-- Кредиты пользователя
+CREATE INDEX IF NOT EXISTS idx_credits_owner_id ON credits (owner_id);
+
+CREATE INDEX IF NOT EXISTS idx_credits_tariff_id ON credits (tariff_id);
+
+-- История платежей кредита, от новых к старым
+CREATE INDEX IF NOT EXISTS idx_credit_payments_credit_id_payment_date ON credit_payments (credit_id, payment_date);
+
+-- График платежей кредита; одна строка на месяц
+CREATE UNIQUE INDEX IF NOT EXISTS uk_payment_schedule_credit_id_month_number ON payment_schedule (credit_id, month_number);
+
+-- Захват операций outbox: только ожидающие отправки
+CREATE INDEX IF NOT EXISTS idx_money_operation_outbox_pending ON money_operation_outbox (next_attempt_at)
+    WHERE status = 'PENDING';
+
+-- Очистка истёкших ключей идемпотентности
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
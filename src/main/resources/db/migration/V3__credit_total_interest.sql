@@ -0,0 +1,10 @@
+-- Сумма процентов по графику хранится в кредите, статистика не читает график
+ALTER TABLE credits ADD COLUMN IF NOT EXISTS total_interest NUMERIC(15, 2);
+
+UPDATE credits c
+SET total_interest = s.total_interest
+FROM (SELECT credit_id, SUM(interest_payment) AS total_interest
+      FROM payment_schedule
+      GROUP BY credit_id) s
+WHERE s.credit_id = c.id
+  AND c.total_interest IS NULL;
@@ -0,0 +1,14 @@
+CREATE TABLE IF NOT EXISTS portfolio_snapshots (
+    id                    BIGSERIAL      NOT NULL,
+    snapshot_at           TIMESTAMP(6)   NOT NULL,
+    tariff_id             BIGINT         NOT NULL,
+    status                VARCHAR(255)   NOT NULL
+        CHECK (status IN ('ACTIVE', 'PAID_OFF', 'OVERDUE', 'CANCELLED')),
+    credit_count          BIGINT         NOT NULL,
+    issued_amount         NUMERIC(19, 2) NOT NULL,
+    outstanding_principal NUMERIC(19, 2) NOT NULL,
+    accumulated_penalty   NUMERIC(19, 2) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_portfolio_snapshots_snapshot_at ON portfolio_snapshots (snapshot_at);
@@ -0,0 +1,18 @@
+-- Блокировки плановых задач: одна строка на задачу
+CREATE TABLE IF NOT EXISTS scheduler_locks (
+    name         VARCHAR(64)  NOT NULL,
+    locked_by    VARCHAR(255) NOT NULL,
+    locked_at    TIMESTAMP(6) NOT NULL,
+    locked_until TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (name)
+);
+
+-- Живые экземпляры сервиса для распределения шардов
+CREATE TABLE IF NOT EXISTS scheduler_instances (
+    instance_id  VARCHAR(255) NOT NULL,
+    heartbeat_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (instance_id)
+);
+
+-- Догрузка в индекс дат платежей кредитов, изменённых другими экземплярами
+CREATE INDEX IF NOT EXISTS idx_credits_updated_at ON credits (updated_at);
@@ -0,0 +1,3 @@
+-- Часть подтверждённого списания, не распределённая по кредиту (кредит уже закрыт или отменён, переплата);
+-- подлежит возврату клиенту
+ALTER TABLE credit_payments ADD COLUMN IF NOT EXISTS unallocated_amount NUMERIC(15, 2) NOT NULL DEFAULT 0;
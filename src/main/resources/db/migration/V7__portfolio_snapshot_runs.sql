@@ -0,0 +1,11 @@
+-- Заголовок снимка портфеля: строка есть и у пустого снимка, по ней находится последний снимок
+CREATE TABLE IF NOT EXISTS portfolio_snapshot_runs (
+    snapshot_at TIMESTAMP(6) NOT NULL,
+    group_count INTEGER      NOT NULL,
+    PRIMARY KEY (snapshot_at)
+);
+
+-- Снимки, сохранённые до появления заголовков
+INSERT INTO portfolio_snapshot_runs (snapshot_at, group_count)
+SELECT snapshot_at, COUNT(*) FROM portfolio_snapshots GROUP BY snapshot_at
+ON CONFLICT (snapshot_at) DO NOTHING;
@@ -0,0 +1,3 @@
+-- Кредиты, выданные до outbox, зачислялись синхронно в той же транзакции, но статус зачисления не записывался;
+-- планировщик обслуживает только кредиты с подтверждённым зачислением
+UPDATE credits SET disbursement_status = 'CONFIRMED' WHERE disbursement_status IS NULL;
@@ -0,0 +1,67 @@
+package com.credit;
+
+import com.credit.client.CoreServiceClient;
+import com.credit.entity.Credit;
+import com.credit.entity.CreditStatus;
+import com.credit.entity.CreditTariff;
+import com.credit.entity.MoneyOperationStatus;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.annotation.DirtiesContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Контекст приложения на PostgreSQL в контейнере со схемой из миграций Flyway.
+ * Плановые задачи выключены - тесты запускают проходы сами; Core сервис заменён моком.
+ * Контейнер запускается на каждый тестовый класс, поэтому контекст не переиспользуется между классами.
+ * Без Docker тесты пропускаются.
+ */
+@SpringBootTest(properties = {
+        "credit.scheduling.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+@Testcontainers(disabledWithoutDocker = true)
+@DirtiesContext
+public abstract class PostgresIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    protected static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @MockBean
+    protected CoreServiceClient coreServiceClient;
+
+    protected static CreditTariff tariff(String name, String interestRate) {
+        CreditTariff tariff = new CreditTariff();
+        tariff.setName(name);
+        tariff.setInterestRate(new BigDecimal(interestRate));
+        tariff.setDueDate(LocalDate.now().plusYears(1));
+        tariff.setIsActive(true);
+        return tariff;
+    }
+
+    protected static Credit credit(String ownerId, CreditTariff tariff, CreditStatus status,
+                                   String amount, int months) {
+        Credit credit = new Credit();
+        credit.setOwnerId(ownerId);
+        credit.setTariff(tariff);
+        credit.setAmount(new BigDecimal(amount));
+        credit.setRemainingAmount(new BigDecimal(amount));
+        credit.setMonthlyPayment(new BigDecimal(amount).divide(BigDecimal.valueOf(months), 2, RoundingMode.HALF_UP));
+        credit.setDurationMonths(months);
+        credit.setRemainingMonths(months);
+        credit.setStatus(status);
+        credit.setDisbursementStatus(MoneyOperationStatus.CONFIRMED);
+        credit.setIssueDate(LocalDateTime.now());
+        credit.setNextPaymentDate(LocalDateTime.now().plusMinutes(1));
+        return credit;
+    }
+}
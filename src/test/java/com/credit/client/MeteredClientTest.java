@@ -0,0 +1,83 @@
+package com.credit.client;
+
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MeteredClientTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void successfulCallIsTaggedWithClientMethodAndStatus() throws IOException {
+        Client metered = new MeteredClient(respondingWith(200), registry);
+
+        metered.execute(request("payCredit"), new Request.Options());
+
+        assertThat(registry.get("core.client.requests")
+                .tag("method", "payCredit")
+                .tag("outcome", "SUCCESS")
+                .tag("status", "200")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void errorStatusesAreTaggedByOutcome() throws IOException {
+        new MeteredClient(respondingWith(409), registry).execute(request("applyCredit"), new Request.Options());
+        new MeteredClient(respondingWith(503), registry).execute(request("applyCredit"), new Request.Options());
+
+        assertThat(registry.get("core.client.requests").tag("outcome", "CLIENT_ERROR").tag("status", "409")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get("core.client.requests").tag("outcome", "SERVER_ERROR").tag("status", "503")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void ioFailureIsTimedAsIoError() {
+        Client failing = (request, options) -> {
+            throw new IOException("connection reset");
+        };
+        Client metered = new MeteredClient(failing, registry);
+
+        assertThatThrownBy(() -> metered.execute(request("getMyBankAccounts"), new Request.Options()))
+                .isInstanceOf(IOException.class);
+
+        assertThat(registry.get("core.client.requests")
+                .tag("method", "getMyBankAccounts")
+                .tag("outcome", "IO_ERROR")
+                .tag("status", "none")
+                .timer().count()).isEqualTo(1);
+    }
+
+    private static Client respondingWith(int status) {
+        return (request, options) -> Response.builder()
+                .status(status)
+                .reason("test")
+                .request(request)
+                .headers(Map.of())
+                .build();
+    }
+
+    private static Request request(String clientMethod) {
+        MethodMetadata metadata = new SpringMvcContract().parseAndValidateMetadata(CoreServiceClient.class).stream()
+                .filter(candidate -> candidate.method().getName().equals(clientMethod))
+                .findFirst()
+                .orElseThrow();
+        RequestTemplate template = new RequestTemplate();
+        template.methodMetadata(metadata);
+        return Request.create(Request.HttpMethod.PUT, "http://core/test", Map.of(), null,
+                StandardCharsets.UTF_8, template);
+    }
+}
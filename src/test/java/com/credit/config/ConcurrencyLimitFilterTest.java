@@ -0,0 +1,65 @@
+package com.credit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Предел считается по всем активным пулам, а асинхронный запрос держит место до завершения выгрузки
+class ConcurrencyLimitFilterTest {
+
+    @Test
+    void limitCoversPrimaryAndReplicaPools() {
+        ConcurrencyProperties properties = new ConcurrencyProperties();
+        properties.setRequestsPerConnection(2);
+
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(properties, pools(10, 5));
+
+        assertThat(filter.availablePermits()).isEqualTo(30);
+    }
+
+    @Test
+    void synchronousRequestReleasesPermitOnReturn() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(new ConcurrencyProperties(), pools(1));
+        int available = filter.availablePermits();
+
+        filter.doFilter(request(), new MockHttpServletResponse(),
+                (request, response) -> assertThat(filter.availablePermits()).isEqualTo(available - 1));
+
+        assertThat(filter.availablePermits()).isEqualTo(available);
+    }
+
+    @Test
+    void asyncRequestHoldsPermitUntilCompletion() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(new ConcurrencyProperties(), pools(1));
+        int available = filter.availablePermits();
+        MockHttpServletRequest request = request();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, response) -> req.startAsync());
+
+        assertThat(filter.availablePermits()).isEqualTo(available - 1);
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertThat(filter.availablePermits()).isEqualTo(available);
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/credits/export");
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private static ObjectProvider<HikariDataSource> pools(int... sizes) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        for (int i = 0; i < sizes.length; i++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setMaximumPoolSize(sizes[i]);
+            beanFactory.registerSingleton("pool" + i, dataSource);
+        }
+        return beanFactory.getBeanProvider(HikariDataSource.class);
+    }
+}
@@ -0,0 +1,38 @@
+package com.credit.config;
+
+import com.credit.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Без реплики пул остаётся стандартным: соединения с auto-commit, запись вне транзакции не откатывается
+class DataSourceAutoCommitTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void defaultPoolUsesAutoCommit() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.getAutoCommit()).isTrue();
+        }
+    }
+
+    @Test
+    void writeOutsideTransactionIsCommitted() {
+        jdbcTemplate.update("INSERT INTO scheduler_instances (instance_id, heartbeat_at) VALUES ('autocommit', now())");
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM scheduler_instances WHERE instance_id = 'autocommit'", Long.class))
+                .isEqualTo(1);
+    }
+}
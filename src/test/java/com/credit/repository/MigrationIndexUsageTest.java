@@ -0,0 +1,208 @@
+package com.credit.repository;
+
+import com.credit.PostgresIntegrationTest;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Запросы планировщика и выборки по кредиту обслуживаются индексами из миграций.
+ * Проверяется план того SQL, который выполняют репозитории: запросы JdbcTemplate берутся из констант
+ * CreditTickRepository, запросы Spring Data перехватываются у Hibernate при вызове метода репозитория.
+ * Кредиты заполняются типичным распределением (в основном закрытые, немного ACTIVE и OVERDUE)
+ * со статистикой: на пустой таблице индексы с одинаковым первым столбцом для планировщика равноценны.
+ * Последовательное сканирование запрещено на время EXPLAIN: на небольшой таблице планировщик
+ * выбрал бы его по стоимости, а здесь проверяется, что подходящий индекс вообще есть.
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.credit.repository.MigrationIndexUsageTest$CapturingStatementInspector")
+class MigrationIndexUsageTest extends PostgresIntegrationTest {
+
+    private static final int CREDITS = 50_000;
+    private static final Timestamp NOW = Timestamp.valueOf(LocalDateTime.now());
+    // Одна из партиций диапазона ID, которые проход обрабатывает параллельно
+    private static final long AFTER_ID = 10_000;
+    private static final long UP_TO_ID = 20_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CreditRepository creditRepository;
+
+    @Autowired
+    private CreditPaymentRepository creditPaymentRepository;
+
+    @Autowired
+    private PaymentScheduleRepository paymentScheduleRepository;
+
+    @Autowired
+    private MoneyOperationRepository moneyOperationRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @BeforeEach
+    void seedCredits() {
+        if (jdbcTemplate.queryForObject("SELECT count(*) FROM credits", Long.class) > 0) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO credit_tariffs (name, interest_rate, due_date, is_active, created_at) " +
+                "VALUES ('plans', 0.12, now() + INTERVAL '1 year', true, now())");
+        // Каждый 50-й кредит OVERDUE, каждый 10-й ACTIVE с датой платежа в ближайшие сутки, остальные закрыты
+        jdbcTemplate.update("INSERT INTO credits (owner_id, tariff_id, amount, remaining_amount, monthly_payment, " +
+                "duration_months, remaining_months, accumulated_penalty, overdue_days, status, disbursement_status, " +
+                "issue_date, next_payment_date, created_at, updated_at) " +
+                "SELECT 'owner-' || (g % 5000), (SELECT id FROM credit_tariffs WHERE name = 'plans'), " +
+                "1000, 500, 100, 12, 6, 0, 0, " +
+                "CASE WHEN g % 50 = 0 THEN 'OVERDUE' WHEN g % 10 = 1 THEN 'ACTIVE' ELSE 'PAID_OFF' END, " +
+                "'CONFIRMED', now() - INTERVAL '1 year', " +
+                "CASE WHEN g % 50 = 0 THEN now() - INTERVAL '1 day' " +
+                "WHEN g % 10 = 1 THEN now() + (g % 1440) * INTERVAL '1 minute' END, " +
+                "now() - INTERVAL '1 year', now() - (g % 43200) * INTERVAL '1 minute' " +
+                "FROM generate_series(1, ?) g", CREDITS);
+        jdbcTemplate.execute("ANALYZE credits");
+    }
+
+    @Test
+    void dueDateIndexLoadUsesStatusNextPaymentDateIndex() {
+        String sql = captured(() -> {
+            try (Stream<CreditRepository.DueDate> rows = creditRepository.streamActiveDueDates()) {
+                rows.count();
+            }
+        });
+        assertThat(explain(sql))
+                .contains("idx_credits_status_next_payment_date")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void dueDateSyncUsesUpdatedAtIndex() {
+        String sql = captured(() -> {
+            try (Stream<CreditRepository.DueDate> rows =
+                         creditRepository.streamActiveDueDatesUpdatedSince(NOW.toLocalDateTime())) {
+                rows.count();
+            }
+        });
+        assertThat(explain(sql, NOW))
+                .contains("idx_credits_updated_at")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void overdueIdRangeUsesStatusIdIndex() {
+        assertThat(explain(CreditTickRepository.OVERDUE_ID_RANGE_SQL))
+                .contains("idx_credits_status_id")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void tickIdRangeReadsPrimaryKeyEnds() {
+        // ACTIVE и OVERDUE много: min/max берутся с концов первичного ключа с фильтром, а не перебором статусов
+        assertThat(explain(CreditTickRepository.ID_RANGE_SQL))
+                .contains("credits_pkey")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void tickDueAndPendingUseKeyAndStatusIdIndexes() {
+        assertThat(explain(CreditTickRepository.FIND_DUE_AND_PENDING_SQL,
+                new Long[]{1L, 2L, 3L}, NOW, AFTER_ID, UP_TO_ID, 1, 0, NOW, 500))
+                .contains("credits_pkey")
+                .contains("idx_credits_status_id")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void tickRangeWithoutDueIndexUsesStatusIndexes() {
+        assertThat(explain(CreditTickRepository.FIND_IN_RANGE_SQL, AFTER_ID, UP_TO_ID, 1, 0, NOW, NOW, 500))
+                .contains("idx_credits_status_next_payment_date")
+                .contains("idx_credits_status_id")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void outboxClaimUsesPendingIndex() {
+        String sql = captured(() -> moneyOperationRepository.claimDueIds(
+                NOW.toLocalDateTime(), NOW.toLocalDateTime().plusMinutes(1), 50));
+        assertThat(explain(sql, NOW, NOW, NOW, 50))
+                .contains("idx_money_operation_outbox_pending")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void creditsByOwnerUseOwnerIndex() {
+        String sql = captured(() -> creditRepository.findByOwnerId("owner-1"));
+        assertThat(explain(sql, "owner-1"))
+                .contains("idx_credits_owner_id")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void paymentHistoryUsesCreditPaymentDateIndex() {
+        String sql = captured(() -> creditPaymentRepository.findByCreditIdOrderByPaymentDateDesc(1L));
+        assertThat(explain(sql, 1L))
+                .contains("idx_credit_payments_credit_id_payment_date")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void paymentScheduleUsesCreditMonthIndex() {
+        String sql = captured(() -> paymentScheduleRepository.findByCreditIdOrderByMonthNumber(1L));
+        assertThat(explain(sql, 1L))
+                .contains("uk_payment_schedule_credit_id_month_number")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void idempotencyPurgeUsesExpiresAtIndex() {
+        String sql = captured(() -> idempotencyRecordRepository.deleteExpiredBatch(NOW.toLocalDateTime(), 1000));
+        assertThat(explain(sql, NOW, 1000))
+                .contains("idx_idempotency_keys_expires_at")
+                .doesNotContain("Seq Scan");
+    }
+
+    // Последний SQL, отправленный Hibernate при вызове репозитория
+    private String captured(Runnable call) {
+        CapturingStatementInspector.STATEMENTS.clear();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> call.run());
+        List<String> statements = CapturingStatementInspector.STATEMENTS;
+        assertThat(statements).isNotEmpty();
+        return statements.get(statements.size() - 1);
+    }
+
+    private String explain(String sql, Object... args) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args);
+            return String.join("\n", plan);
+        });
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
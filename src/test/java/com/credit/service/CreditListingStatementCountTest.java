@@ -0,0 +1,94 @@
+package com.credit.service;
+
+import com.credit.PostgresIntegrationTest;
+import com.credit.dto.CreditResponse;
+import com.credit.entity.Credit;
+import com.credit.entity.CreditStatus;
+import com.credit.entity.CreditTariff;
+import com.credit.repository.CreditRepository;
+import com.credit.repository.CreditTariffRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Выдача CreditResponse читает кредиты вместе с тарифами одним запросом, без N+1 выборок тарифов
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CreditListingStatementCountTest extends PostgresIntegrationTest {
+
+    private static final int TARIFFS = 3;
+    private static final int CREDITS_PER_TARIFF = 10;
+
+    @Autowired
+    private CreditService creditService;
+
+    @Autowired
+    private CreditRepository creditRepository;
+
+    @Autowired
+    private CreditTariffRepository creditTariffRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long firstCreditId;
+
+    @BeforeEach
+    void setUp() {
+        List<Credit> credits = new ArrayList<>();
+        for (int t = 0; t < TARIFFS; t++) {
+            CreditTariff tariff = creditTariffRepository.save(tariff("listing-" + t, "0.12"));
+            for (int i = 0; i < CREDITS_PER_TARIFF; i++) {
+                credits.add(credit(i % 2 == 0 ? "owner-a" : "owner-b", tariff, CreditStatus.ACTIVE, "12000.00", 12));
+            }
+        }
+        firstCreditId = creditRepository.saveAll(credits).get(0).getId();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        creditRepository.deleteAll();
+        creditTariffRepository.deleteAll();
+    }
+
+    @Test
+    void allCreditsAreListedWithOneStatement() {
+        List<CreditResponse> credits = creditService.getAllCredits();
+
+        assertThat(credits).hasSize(TARIFFS * CREDITS_PER_TARIFF);
+        assertThat(credits).allSatisfy(credit -> assertThat(credit.getTariffName()).startsWith("listing-"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void userCreditsAreListedWithOneStatement() {
+        List<CreditResponse> credits = creditService.getCreditsByUserId("owner-a");
+
+        assertThat(credits).hasSize(TARIFFS * CREDITS_PER_TARIFF / 2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void creditPageIsListedWithOneStatement() {
+        assertThat(creditService.getCreditsPage(null, 20).getItems()).hasSize(20);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void singleCreditIsLoadedWithOneStatement() {
+        assertThat(creditService.getCreditById(firstCreditId).getTariffName()).isEqualTo("listing-0");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,65 @@
+package com.credit.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CreditMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CreditMetrics creditMetrics = new CreditMetrics(registry);
+
+    @Test
+    void operationIsTimedWithSuccessOutcome() {
+        assertThat(creditMetrics.recordOperation("take_credit", () -> 42)).isEqualTo(42);
+
+        assertThat(registry.get("credit.operation")
+                .tag("operation", "take_credit")
+                .tag("outcome", "success")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedOperationIsTimedWithErrorOutcome() {
+        assertThatThrownBy(() -> creditMetrics.recordOperation("repay_credit", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(registry.get("credit.operation")
+                .tag("operation", "repay_credit")
+                .tag("outcome", "error")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.find("credit.operation").tag("outcome", "success").timer()).isNull();
+    }
+
+    @Test
+    void jobRunReportsDurationRowsAndStages() {
+        CreditMetrics.JobRun run = creditMetrics.startJob("credit_minute_tick");
+        run.stage("overdue", 3);
+        run.stage("penalty", 5);
+        run.finish(100, 8);
+
+        assertThat(registry.get("credit.scheduler.job").tag("job", "credit_minute_tick").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("credit.scheduler.rows.scanned").tag("job", "credit_minute_tick").counter().count())
+                .isEqualTo(100);
+        assertThat(registry.get("credit.scheduler.rows.changed").tag("job", "credit_minute_tick").counter().count())
+                .isEqualTo(8);
+        assertThat(registry.get("credit.scheduler.stage.changed")
+                .tag("job", "credit_minute_tick")
+                .tag("stage", "penalty")
+                .counter().count()).isEqualTo(5);
+    }
+
+    @Test
+    void repeatedRunsAccumulateInTheSameMeters() {
+        creditMetrics.startJob("dispatch_money_operations").finish(10, 4);
+        creditMetrics.startJob("dispatch_money_operations").finish(20, 6);
+
+        assertThat(registry.get("credit.scheduler.job").timers()).hasSize(1);
+        assertThat(registry.get("credit.scheduler.rows.scanned").counter().count()).isEqualTo(30);
+        assertThat(registry.get("credit.scheduler.rows.changed").counter().count()).isEqualTo(10);
+    }
+}
@@ -0,0 +1,179 @@
+package com.credit.service;
+
+import com.credit.PostgresIntegrationTest;
+import com.credit.entity.Credit;
+import com.credit.entity.CreditPayment;
+import com.credit.entity.CreditStatus;
+import com.credit.entity.CreditTariff;
+import com.credit.entity.MoneyOperation;
+import com.credit.entity.MoneyOperationStatus;
+import com.credit.entity.MoneyOperationType;
+import com.credit.entity.PaymentType;
+import com.credit.repository.CreditPaymentRepository;
+import com.credit.repository.CreditRepository;
+import com.credit.repository.CreditTariffRepository;
+import com.credit.repository.MoneyOperationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Подтверждения платежей из нескольких потоков одновременно с минутными проходами планировщика.
+ * Тариф и штраф нулевые, поэтому каждый подтверждённый платёж целиком уменьшает основной долг
+ * и на один месяц срок: потерянное обновление видно по остатку кредита.
+ */
+@TestPropertySource(properties = {
+        // Порции по две операции: платежи одного кредита подтверждают разные потоки
+        "credit.outbox.batch-size=2",
+        "credit.outbox.concurrency=2",
+        "credit.outbox.lease=1s",
+        "credit.outbox.state-retries=20",
+        "core-service.timeouts.apply-credit.connect=100ms",
+        "core-service.timeouts.apply-credit.read=100ms",
+        "core-service.timeouts.pay-credit.connect=100ms",
+        "core-service.timeouts.pay-credit.read=100ms"
+})
+class CreditRepaymentConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int CREDITS = 3;
+    private static final int PAYMENTS_PER_CREDIT = 40;
+    private static final int DISPATCHERS = 4;
+    private static final BigDecimal PAYMENT = new BigDecimal("10.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("100000.00");
+    private static final int MONTHS = 1000;
+    // Без паузы проходы непрерывно перезаписывают кредиты и подтверждения почти всегда проигрывают гонку
+    private static final long TICK_PAUSE_MILLIS = 5;
+
+    @Autowired
+    private MoneyOperationDispatcher moneyOperationDispatcher;
+
+    @Autowired
+    private CreditTickPipeline creditTickPipeline;
+
+    @Autowired
+    private CreditRepository creditRepository;
+
+    @Autowired
+    private CreditTariffRepository creditTariffRepository;
+
+    @Autowired
+    private CreditPaymentRepository paymentRepository;
+
+    @Autowired
+    private MoneyOperationRepository moneyOperationRepository;
+
+    @Test
+    void concurrentConfirmationsAndTicksLoseNoUpdates() throws Exception {
+        CreditTariff tariff = creditTariffRepository.save(tariff("stress", "0.00"));
+        List<Credit> credits = new ArrayList<>();
+        for (int i = 0; i < CREDITS; i++) {
+            Credit credit = credit("owner-" + i, tariff, CreditStatus.OVERDUE, AMOUNT.toPlainString(), MONTHS);
+            credit.setNextPaymentDate(LocalDateTime.now().minusMinutes(1));
+            credits.add(creditRepository.save(credit));
+        }
+        // Операции разных кредитов перемешаны, Core уже принял их - повторных вызовов Core нет
+        for (int p = 0; p < PAYMENTS_PER_CREDIT; p++) {
+            for (Credit credit : credits) {
+                enqueueAcceptedRepayment(credit);
+            }
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong ticks = new AtomicLong();
+        ExecutorService workers = Executors.newFixedThreadPool(DISPATCHERS + 1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < DISPATCHERS; i++) {
+                futures.add(workers.submit(() -> {
+                    while (running.get()) {
+                        moneyOperationDispatcher.dispatch();
+                    }
+                }));
+            }
+            // Каждый проход - новая минута: просрочка и нулевой штраф снова записываются в кредит
+            LocalDateTime base = LocalDateTime.now().plusHours(1);
+            futures.add(workers.submit(() -> {
+                while (running.get()) {
+                    creditTickPipeline.run(BigDecimal.ZERO, base.plusMinutes(ticks.incrementAndGet()),
+                            ClusterCoordinator.Shard.ALL);
+                    Thread.sleep(TICK_PAUSE_MILLIS);
+                }
+                return null;
+            }));
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(90).toNanos();
+            while (pendingOperations() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+        } finally {
+            running.set(false);
+            workers.shutdown();
+            assertThat(workers.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        assertThat(pendingOperations()).isZero();
+        Map<Long, Long> confirmedByCredit = moneyOperationRepository.findAll().stream()
+                .filter(operation -> operation.getStatus() == MoneyOperationStatus.CONFIRMED)
+                .collect(Collectors.groupingBy(MoneyOperation::getCreditId, Collectors.counting()));
+
+        long versions = 0;
+        for (Credit credit : creditRepository.findAllById(credits.stream().map(Credit::getId).toList())) {
+            long confirmed = confirmedByCredit.getOrDefault(credit.getId(), 0L);
+            assertThat(confirmed).isEqualTo(PAYMENTS_PER_CREDIT);
+            assertThat(credit.getRemainingAmount())
+                    .isEqualByComparingTo(AMOUNT.subtract(PAYMENT.multiply(BigDecimal.valueOf(confirmed))));
+            assertThat(credit.getRemainingMonths()).isEqualTo(MONTHS - (int) confirmed);
+            versions += credit.getVersion();
+        }
+        // Проходы планировщика действительно писали в те же кредиты между подтверждениями
+        assertThat(ticks.get()).isGreaterThan(1);
+        assertThat(versions).isGreaterThan((long) CREDITS * PAYMENTS_PER_CREDIT);
+    }
+
+    private void enqueueAcceptedRepayment(Credit credit) {
+        CreditPayment payment = new CreditPayment();
+        payment.setCredit(credit);
+        payment.setAmount(PAYMENT);
+        payment.setPaymentType(PaymentType.MANUAL_REPAYMENT);
+        payment.setPaymentDate(LocalDateTime.now());
+        payment.setStatus(MoneyOperationStatus.PENDING);
+        payment = paymentRepository.save(payment);
+
+        MoneyOperation operation = new MoneyOperation();
+        operation.setOperationType(MoneyOperationType.PAY_CREDIT);
+        operation.setStatus(MoneyOperationStatus.PENDING);
+        operation.setIdempotencyKey(UUID.randomUUID().toString());
+        operation.setBankAccountId("account-" + credit.getOwnerId());
+        operation.setAmount(PAYMENT);
+        operation.setCreditId(credit.getId());
+        operation.setPaymentId(payment.getId());
+        operation.setCoreAcceptedAt(LocalDateTime.now());
+        moneyOperationRepository.save(operation);
+    }
+
+    private long pendingOperations() {
+        return moneyOperationRepository.findAll().stream()
+                .filter(operation -> operation.getStatus() == MoneyOperationStatus.PENDING)
+                .count();
+    }
+}
@@ -0,0 +1,83 @@
+package com.credit.service;
+
+import com.credit.entity.CreditTariff;
+import com.credit.repository.CreditTariffRepository;
+import com.credit.util.EtagUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Запрос тарифа по ID не пересобирает снимок тарифов и не считает ETag на каждый вызов
+class CreditTariffServiceTest {
+
+    private final CreditTariffRepository repository = mock(CreditTariffRepository.class);
+
+    @Test
+    void cachedTariffIsServedWithPrecomputedEtag() {
+        when(repository.findAll()).thenReturn(List.of(tariff(1L)));
+        CreditTariffService service = service(60_000);
+
+        TariffCache.Tagged tariff = service.getTariffById(1L);
+
+        assertThat(tariff.response().getName()).isEqualTo("tariff-1");
+        assertThat(tariff.etag()).isEqualTo(EtagUtil.etag(tariff.response()));
+        assertThat(service.getTariffById(1L).etag()).isSameAs(tariff.etag());
+        verify(repository, times(1)).findAll();
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void missingTariffInFreshSnapshotIsNotFoundWithoutReload() {
+        when(repository.findAll()).thenReturn(List.of(tariff(1L)));
+        CreditTariffService service = service(60_000);
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> service.getTariffById(42L))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+        }
+        verify(repository, times(1)).findAll();
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void staleSnapshotReadsSingleRowAndReloadsOncePerTariff() throws InterruptedException {
+        when(repository.findAll()).thenReturn(List.of());
+        when(repository.findById(7L)).thenReturn(Optional.of(tariff(7L)));
+        when(repository.findById(42L)).thenReturn(Optional.empty());
+        CreditTariffService service = service(1);
+        service.getTariffsSnapshot();
+        Thread.sleep(5);
+
+        assertThat(service.getTariffById(7L).response().getId()).isEqualTo(7L);
+        assertThatThrownBy(() -> service.getTariffById(42L)).isInstanceOf(ResponseStatusException.class);
+
+        // Начальная загрузка и одна пересборка из-за найденного тарифа; несуществующий ID снимок не трогает
+        verify(repository, times(2)).findAll();
+        verify(repository, times(1)).findById(7L);
+    }
+
+    private CreditTariffService service(long refreshIntervalMillis) {
+        return new CreditTariffService(repository, new TariffCache(repository, refreshIntervalMillis));
+    }
+
+    private static CreditTariff tariff(Long id) {
+        return new CreditTariff(id, "tariff-" + id, new BigDecimal("0.12"), LocalDate.of(2030, 1, 1), true,
+                LocalDateTime.of(2026, 1, 1, 0, 0));
+    }
+}
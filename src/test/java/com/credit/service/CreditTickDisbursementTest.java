@@ -0,0 +1,105 @@
+package com.credit.service;
+
+import com.credit.PostgresIntegrationTest;
+import com.credit.entity.Credit;
+import com.credit.entity.CreditStatus;
+import com.credit.entity.CreditTariff;
+import com.credit.entity.MoneyOperation;
+import com.credit.entity.MoneyOperationStatus;
+import com.credit.entity.MoneyOperationType;
+import com.credit.repository.CreditRepository;
+import com.credit.repository.CreditTariffRepository;
+import com.credit.repository.MoneyOperationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Кредит, деньги по которому ещё не дошли до клиента, не становится просроченным и не получает штрафы
+class CreditTickDisbursementTest extends PostgresIntegrationTest {
+
+    private static final BigDecimal PENALTY_RATE = new BigDecimal("0.01");
+
+    @Autowired
+    private CreditTickPipeline creditTickPipeline;
+
+    @Autowired
+    private DueDateIndex dueDateIndex;
+
+    @Autowired
+    private CreditService creditService;
+
+    @Autowired
+    private CreditRepository creditRepository;
+
+    @Autowired
+    private CreditTariffRepository creditTariffRepository;
+
+    @Autowired
+    private MoneyOperationRepository moneyOperationRepository;
+
+    @Test
+    void pendingDisbursementIsSkippedBySweep() {
+        CreditTariff tariff = creditTariffRepository.save(tariff("disbursement-pending", "0.12"));
+        Credit confirmed = creditRepository.save(dueCredit(tariff, CreditStatus.ACTIVE, MoneyOperationStatus.CONFIRMED));
+        Credit pendingActive = creditRepository.save(dueCredit(tariff, CreditStatus.ACTIVE, MoneyOperationStatus.PENDING));
+        Credit pendingOverdue = creditRepository.save(dueCredit(tariff, CreditStatus.OVERDUE, MoneyOperationStatus.PENDING));
+        dueDateIndex.reconcile();
+        // Даже попавший в индекс кредит отсеивается запросом кандидатов
+        dueDateIndex.track(pendingActive.getId(), pendingActive.getNextPaymentDate());
+
+        creditTickPipeline.run(PENALTY_RATE, LocalDateTime.now(), ClusterCoordinator.Shard.ALL);
+
+        assertThat(reload(confirmed).getStatus()).isEqualTo(CreditStatus.OVERDUE);
+        assertThat(reload(confirmed).getAccumulatedPenalty()).isPositive();
+        assertUntouched(pendingActive, CreditStatus.ACTIVE);
+        assertUntouched(pendingOverdue, CreditStatus.OVERDUE);
+    }
+
+    @Test
+    void confirmedDisbursementIsTrackedAndSwept() {
+        CreditTariff tariff = creditTariffRepository.save(tariff("disbursement-confirmed", "0.12"));
+        Credit credit = creditRepository.save(dueCredit(tariff, CreditStatus.ACTIVE, MoneyOperationStatus.PENDING));
+        dueDateIndex.reconcile();
+        int trackedBefore = dueDateIndex.size();
+
+        creditService.confirmMoneyOperation(applyCredit(credit).getId());
+
+        assertThat(dueDateIndex.size()).isEqualTo(trackedBefore + 1);
+        creditTickPipeline.run(PENALTY_RATE, LocalDateTime.now(), ClusterCoordinator.Shard.ALL);
+        assertThat(reload(credit).getStatus()).isEqualTo(CreditStatus.OVERDUE);
+    }
+
+    private Credit dueCredit(CreditTariff tariff, CreditStatus status, MoneyOperationStatus disbursementStatus) {
+        Credit credit = credit("owner", tariff, status, "12000.00", 12);
+        credit.setDisbursementStatus(disbursementStatus);
+        credit.setNextPaymentDate(LocalDateTime.now().minusMinutes(5));
+        return credit;
+    }
+
+    private MoneyOperation applyCredit(Credit credit) {
+        MoneyOperation operation = new MoneyOperation();
+        operation.setOperationType(MoneyOperationType.APPLY_CREDIT);
+        operation.setStatus(MoneyOperationStatus.PENDING);
+        operation.setIdempotencyKey(UUID.randomUUID().toString());
+        operation.setBankAccountId("account");
+        operation.setAmount(credit.getAmount());
+        operation.setCreditId(credit.getId());
+        return moneyOperationRepository.save(operation);
+    }
+
+    private void assertUntouched(Credit credit, CreditStatus status) {
+        Credit stored = reload(credit);
+        assertThat(stored.getStatus()).isEqualTo(status);
+        assertThat(stored.getAccumulatedPenalty()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(stored.getVersion()).isEqualTo(credit.getVersion());
+    }
+
+    private Credit reload(Credit credit) {
+        return creditRepository.findById(credit.getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,147 @@
+package com.credit.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Паритет расчёта в копейках на long с эталонным BigDecimal расчётом CreditCalculator.*Exact:
+ * платёж, график и сумма процентов должны совпадать до копейки, в том числе на ветках отката к BigDecimal.
+ * По умолчанию случайная проверка идёт на 500 кредитах; полный прогон на миллионах кредитов включается явно:
+ * mvn test -Dtest=FixedPointAmortizationTest -Damortization.parity.loans=2000000 [-Damortization.parity.seed=...]
+ */
+class FixedPointAmortizationTest {
+
+    private static final long SEED = 20240917L;
+    private static final int ITERATIONS = 500;
+    private static final String LOANS_PROPERTY = "amortization.parity.loans";
+    private static final String SEED_PROPERTY = "amortization.parity.seed";
+
+    @Test
+    void randomizedParityWithExactCalculation() {
+        randomizedParity(SEED, ITERATIONS);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = LOANS_PROPERTY, matches = "\\d+")
+    void randomizedParityOnLongRun() {
+        randomizedParity(Long.getLong(SEED_PROPERTY, SEED), Long.getLong(LOANS_PROPERTY));
+    }
+
+    private static void randomizedParity(long seed, long loans) {
+        Random random = new Random(seed);
+        for (long i = 0; i < loans; i++) {
+            // Суммы от 1.00 до 10 000 000.00, годовые ставки 0-50% с точностью до сотой процента, сроки 1-360 месяцев
+            BigDecimal amount = BigDecimal.valueOf(100 + (long) (random.nextDouble() * 1_000_000_000L), 2);
+            BigDecimal annualRate = BigDecimal.valueOf(random.nextInt(5001), 4);
+            int months = 1 + random.nextInt(360);
+
+            assertParity(amount, CreditCalculator.monthlyRate(annualRate), months,
+                    "seed=" + seed + ", iteration=" + i);
+        }
+    }
+
+    @Test
+    void zeroRateParity() {
+        assertParity(new BigDecimal("1000.00"), BigDecimal.ZERO.setScale(10), 3, "zero rate");
+        assertParity(new BigDecimal("100.01"), BigDecimal.ZERO.setScale(10), 7, "zero rate with remainder");
+    }
+
+    @Test
+    void halfKopeckPaymentFallsBackToExactRounding() {
+        // n = 1: платёж = сумма * (1 + r); при r = 0.5 и нечётной сумме в копейках ровно половина копейки
+        long rateUnits = FixedPointAmortization.toRateUnits(new BigDecimal("0.5"));
+        for (long amountMinor = 1; amountMinor < 200; amountMinor += 2) {
+            BigDecimal amount = BigDecimal.valueOf(amountMinor, 2);
+            BigDecimal expected = CreditCalculator.monthlyPaymentExact(amount, new BigDecimal("0.5"), 1);
+
+            assertThat(FixedPointAmortization.monthlyPayment(amountMinor, rateUnits, 1))
+                    .as("amountMinor=%d", amountMinor)
+                    .isEqualTo(expected.unscaledValue().longValueExact());
+            assertParity(amount, new BigDecimal("0.5000000000"), 1, "half kopeck, amountMinor=" + amountMinor);
+        }
+    }
+
+    @Test
+    void paymentBelowFirstMonthInterestUsesExactSchedule() {
+        BigDecimal amount = new BigDecimal("100000.00");
+        BigDecimal monthlyRate = CreditCalculator.monthlyRate(new BigDecimal("0.24"));
+        long firstInterest = FixedPointAmortization.interest(
+                FixedPointAmortization.toMinorUnits(amount), FixedPointAmortization.toRateUnits(monthlyRate));
+
+        // Граница: платёж равен процентам первого месяца - ещё расчёт в long, на копейку меньше - откат
+        for (long paymentMinor : new long[]{firstInterest, firstInterest - 1, 1}) {
+            BigDecimal payment = BigDecimal.valueOf(paymentMinor, 2);
+            assertScheduleParity(amount, monthlyRate, payment, 24, "payment=" + payment);
+        }
+    }
+
+    @Test
+    void multiplyHighOverflowUsesExactCalculation() {
+        BigDecimal monthlyRate = CreditCalculator.monthlyRate(new BigDecimal("0.12"));
+        long rateUnits = FixedPointAmortization.toRateUnits(monthlyRate);
+        long maxAmountMinor = Long.MAX_VALUE / rateUnits;
+
+        assertThat(FixedPointAmortization.supports(maxAmountMinor, rateUnits, 12)).isTrue();
+        assertThat(FixedPointAmortization.supports(maxAmountMinor + 1, rateUnits, 12)).isFalse();
+        assertThat(FixedPointAmortization.supports(Long.MAX_VALUE / 2, rateUnits, 12)).isFalse();
+
+        assertParity(BigDecimal.valueOf(maxAmountMinor, 2), monthlyRate, 12, "largest supported amount");
+        assertParity(BigDecimal.valueOf(maxAmountMinor + 1, 2), monthlyRate, 12, "smallest overflowing amount");
+        assertParity(new BigDecimal("50000000000000000.00"), monthlyRate, 12, "multiplyHigh overflow");
+    }
+
+    @Test
+    void amountsWithSubKopeckPrecisionUseExactCalculation() {
+        BigDecimal amount = new BigDecimal("1000.005");
+        assertThat(FixedPointAmortization.toMinorUnits(amount)).isEqualTo(Long.MIN_VALUE);
+        assertParity(amount, CreditCalculator.monthlyRate(new BigDecimal("0.1")), 12, "sub-kopeck amount");
+    }
+
+    private static void assertParity(BigDecimal amount, BigDecimal monthlyRate, int months, String description) {
+        BigDecimal payment = CreditCalculator.monthlyPayment(amount, monthlyRate, months);
+        BigDecimal expectedPayment = CreditCalculator.monthlyPaymentExact(amount, monthlyRate, months);
+        assertThat(payment)
+                .as("monthly payment, %s, amount=%s, rate=%s, months=%d", description, amount, monthlyRate, months)
+                .isEqualByComparingTo(expectedPayment);
+
+        assertScheduleParity(amount, monthlyRate, expectedPayment, months, description);
+    }
+
+    private static void assertScheduleParity(BigDecimal amount, BigDecimal monthlyRate, BigDecimal payment,
+                                             int months, String description) {
+        List<CreditCalculator.ScheduleRow> rows = CreditCalculator.schedule(amount, monthlyRate, payment, months);
+        List<CreditCalculator.ScheduleRow> expectedRows =
+                CreditCalculator.scheduleExact(amount, monthlyRate, payment, months);
+        String context = description + ", amount=" + amount + ", rate=" + monthlyRate + ", months=" + months;
+
+        assertThat(rows).as("schedule size, %s", context).hasSameSizeAs(expectedRows);
+        for (int i = 0; i < rows.size(); i++) {
+            CreditCalculator.ScheduleRow row = rows.get(i);
+            CreditCalculator.ScheduleRow expected = expectedRows.get(i);
+            String rowContext = context + ", month=" + expected.monthNumber();
+            assertThat(row.monthNumber()).as(rowContext).isEqualTo(expected.monthNumber());
+            assertThat(row.totalPayment()).as("total, %s", rowContext).isEqualByComparingTo(expected.totalPayment());
+            assertThat(row.interestPayment()).as("interest, %s", rowContext)
+                    .isEqualByComparingTo(expected.interestPayment());
+            assertThat(row.principalPayment()).as("principal, %s", rowContext)
+                    .isEqualByComparingTo(expected.principalPayment());
+            assertThat(row.remainingBalance()).as("balance, %s", rowContext)
+                    .isEqualByComparingTo(expected.remainingBalance());
+        }
+
+        BigDecimal expectedInterest = expectedRows.stream()
+                .map(CreditCalculator.ScheduleRow::interestPayment)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .setScale(2, RoundingMode.UNNECESSARY);
+        assertThat(CreditCalculator.totalInterest(amount, monthlyRate, payment, months))
+                .as("total interest, %s", context)
+                .isEqualByComparingTo(expectedInterest);
+    }
+}
@@ -0,0 +1,57 @@
+package com.credit.service;
+
+import com.credit.PostgresIntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Метрики пула соединений и плановых задач регистрируются в реестре, который отдаёт /actuator/prometheus
+@AutoConfigureObservability(tracing = false)
+class MetricsRegistrationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CreditSchedulerService creditSchedulerService;
+
+    @Test
+    void hikariPoolGaugesAreRegistered() {
+        assertThat(meterRegistry.find("hikaricp.connections.max").gauges()).isNotEmpty();
+        assertThat(meterRegistry.find("hikaricp.connections.active").gauges()).isNotEmpty();
+        assertThat(meterRegistry.find("hikaricp.connections.pending").gauges()).isNotEmpty();
+    }
+
+    @Test
+    void creditTickReportsDurationAndRows() {
+        long runs = tickRuns();
+        creditSchedulerService.processCreditsTick();
+
+        assertThat(tickRuns()).isEqualTo(runs + 1);
+        assertThat(meterRegistry.get("credit.scheduler.rows.scanned").tag("job", "credit_minute_tick").counter())
+                .isNotNull();
+        assertThat(meterRegistry.get("credit.scheduler.rows.changed").tag("job", "credit_minute_tick").counter())
+                .isNotNull();
+        assertThat(meterRegistry.get("credit.scheduler.stage.changed")
+                .tag("job", "credit_minute_tick")
+                .tag("stage", "overdue")
+                .counter()).isNotNull();
+    }
+
+    @Test
+    void applicationTagIsAppliedToCreditMeters() {
+        creditSchedulerService.processCreditsTick();
+
+        assertThat(meterRegistry.get("credit.scheduler.job").tag("application", "credit-service").timers())
+                .isNotEmpty();
+    }
+
+    private long tickRuns() {
+        Timer timer = meterRegistry.find("credit.scheduler.job").tag("job", "credit_minute_tick").timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,47 @@
+package com.credit.service;
+
+import com.credit.PostgresIntegrationTest;
+import com.credit.dto.PortfolioAnalyticsResponse;
+import com.credit.repository.PortfolioSnapshotRepository;
+import com.credit.repository.PortfolioSnapshotRunRepository;
+import com.credit.util.EtagUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Снимок портфеля считает только планировщик; пустой снимок сохраняется заголовком и не пересчитывается
+class PortfolioAnalyticsServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private PortfolioAnalyticsService portfolioAnalyticsService;
+
+    @Autowired
+    private PortfolioSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private PortfolioSnapshotRunRepository snapshotRunRepository;
+
+    @Test
+    void emptySnapshotIsPersistedAndServedWithoutReaggregation() {
+        // До первого прохода планировщика запрос ничего не агрегирует
+        assertThat(portfolioAnalyticsService.getPortfolio()).isEmpty();
+        assertThat(snapshotRunRepository.count()).isZero();
+
+        portfolioAnalyticsService.refresh();
+
+        PortfolioAnalyticsService.Tagged portfolio = portfolioAnalyticsService.getPortfolio().orElseThrow();
+        PortfolioAnalyticsResponse response = portfolio.response();
+        assertThat(portfolio.etag()).isEqualTo(EtagUtil.etag(response));
+        assertThat(response.getSnapshotAt()).isNotNull();
+        assertThat(response.getCreditCount()).isZero();
+        assertThat(response.getGroups()).isEmpty();
+        assertThat(snapshotRepository.count()).isZero();
+        assertThat(snapshotRunRepository.findLatestSnapshotAt()).isEqualTo(response.getSnapshotAt());
+
+        // Свежий пустой снимок читается, а не считается заново
+        portfolioAnalyticsService.refresh();
+        assertThat(snapshotRunRepository.count()).isEqualTo(1);
+        assertThat(portfolioAnalyticsService.getPortfolio()).contains(portfolio);
+    }
+}